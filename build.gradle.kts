@@ -30,6 +30,16 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// ./gradlew jmh -PjmhIncludes=UsagePattern runs a single suite, results go to build/reports/jmh/results.json
+jmh {
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    profilers.add("gc")
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes") as String)
+    }
+}
+
 ext.set("allArchivesBaseName", "${project.group}-${project.name}")
 
 tasks.jar {
@@ -0,0 +1,100 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.AggregatingUnrolledDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+
+/**
+ * Slides a window of {@code window} values by one value per tick and reads the sum and maximum of the window,
+ * comparing the maintained aggregates with scanning an {@code ArrayDeque} on every tick.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class AggregatingUnrolledDequeBenchmark {
+
+    public static final int INBENCHMARK_ITERATIONS = 100;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Param({"1000", "100000"})
+    public int window;
+
+    private AggregatingUnrolledDeque<Long, Long> sum;
+    private AggregatingUnrolledDeque<Long, Long> max;
+    private ArrayDeque<Long> arrayDeque;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sum = AggregatingUnrolledDeque.of(Long::sum);
+        max = AggregatingUnrolledDeque.of(Math::max);
+        arrayDeque = new ArrayDeque<>();
+        for (next = 0; next < window; next++) {
+            sum.addLast(value());
+            max.addLast(value());
+            arrayDeque.addLast(value());
+        }
+    }
+
+    // boxed outside the Long cache on purpose, like timestamps or sizes would be
+    private Long value() {
+        return next * 31 % 1_000_003 + 1_000;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkAggregatingSum() {
+        long result = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++, next++) {
+            sum.addLast(value());
+            sum.pollFirst();
+            result += sum.aggregate();
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkArrayDequeScanSum() {
+        long result = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++, next++) {
+            arrayDeque.addLast(value());
+            arrayDeque.pollFirst();
+            long windowSum = 0;
+            for (Long value : arrayDeque) {
+                windowSum += value;
+            }
+            result += windowSum;
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkAggregatingMax() {
+        long result = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++, next++) {
+            max.addLast(value());
+            max.pollFirst();
+            result += max.aggregate();
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkArrayDequeScanMax() {
+        long result = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++, next++) {
+            arrayDeque.addLast(value());
+            arrayDeque.pollFirst();
+            long windowMax = Long.MIN_VALUE;
+            for (Long value : arrayDeque) {
+                windowMax = Math.max(windowMax, value);
+            }
+            result += windowMax;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.AsyncUnrolledDeque;
+import com.dunemaster.unrolleddeque.UnrolledBlockingDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delivers {@link #ELEMENTS} elements from one producer to {@code consumers} logical consumers and waits until all
+ * of them are consumed. Asynchronous consumers, either subscribers or chains of {@code pollFirstAsync} futures, share
+ * a pool of {@link #POOL_THREADS} threads, while the blocking baseline parks one thread per consumer in
+ * {@code UnrolledBlockingDeque.take()}. {@code SubmissionPublisher} needs Java 9, so it is not part of this Java 8 build.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class AsyncUnrolledDequeBenchmark {
+
+    public static final int ELEMENTS = 100_000;
+    public static final int POOL_THREADS = 4;
+    public static final int WARMUP_ITERATIONS = 6;
+    private final Object objectToAdd = new Object();
+
+    @Param({"4", "256"})
+    public int consumers;
+
+    private ExecutorService pool;
+    private AsyncUnrolledDeque<Object> subscribed;
+    private AsyncUnrolledDeque<Object> futures;
+    private UnrolledBlockingDeque<Object> blocking;
+    private Thread[] blockingConsumers;
+    private volatile CountDownLatch consumed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(POOL_THREADS);
+        subscribed = new AsyncUnrolledDeque<>();
+        for (int i = 0; i < consumers; i++) {
+            subscribed.subscribe(new AsyncUnrolledDeque.Subscriber<Object>() {
+                private AsyncUnrolledDeque.Subscription subscription;
+                private int received;
+
+                @Override
+                public void onSubscribe(AsyncUnrolledDeque.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(128);
+                }
+
+                @Override
+                public void onNext(Object item) {
+                    consumed.countDown();
+                    if (++received == 64) {
+                        received = 0;
+                        subscription.request(64);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            }, pool);
+        }
+        futures = new AsyncUnrolledDeque<>();
+        for (int i = 0; i < consumers; i++) {
+            pollNext();
+        }
+        blocking = new UnrolledBlockingDeque<>();
+        blockingConsumers = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            blockingConsumers[i] = new Thread(() -> {
+                try {
+                    while (true) {
+                        blocking.take();
+                        consumed.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    // benchmark finished
+                }
+            });
+            blockingConsumers[i].setDaemon(true);
+            blockingConsumers[i].start();
+        }
+    }
+
+    // a logical consumer, continued on the pool so that immediately completed futures do not recurse
+    private void pollNext() {
+        CompletableFuture<Object> next = futures.pollFirstAsync();
+        next.thenRunAsync(() -> {
+            consumed.countDown();
+            pollNext();
+        }, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Thread thread : blockingConsumers) {
+            thread.interrupt();
+        }
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public void benchmarkSubscribers() throws InterruptedException {
+        consumed = new CountDownLatch(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; i++) {
+            subscribed.offer(objectToAdd);
+        }
+        consumed.await();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public void benchmarkPollFirstAsync() throws InterruptedException {
+        consumed = new CountDownLatch(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; i++) {
+            futures.offer(objectToAdd);
+        }
+        consumed.await();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public void benchmarkBlockingConsumerThreads() throws InterruptedException {
+        consumed = new CountDownLatch(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; i++) {
+            blocking.offer(objectToAdd);
+        }
+        consumed.await();
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.ConcurrentUnrolledQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Producers and consumers hammering one shared queue. Vary the thread counts with {@code -tg}, e.g. {@code -tg 8,8}.
+ */
+@State(Scope.Group)
+@Fork(1)
+public class ConcurrentUnrolledQueueBenchmark {
+
+    public static final int WARMUP_ITERATIONS = 6;
+    private final Object objectToAdd = new Object();
+
+    @Param({"ConcurrentUnrolledQueue", "ConcurrentLinkedQueue"})
+    public String queueType;
+
+    private Queue<Object> queue;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        queue = "ConcurrentUnrolledQueue".equals(queueType)
+                ? new ConcurrentUnrolledQueue<>()
+                : new ConcurrentLinkedQueue<>();
+    }
+
+    @Benchmark
+    @Group("offerPoll")
+    @GroupThreads(4)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public boolean offer() {
+        return queue.offer(objectToAdd);
+    }
+
+    @Benchmark
+    @Group("offerPoll")
+    @GroupThreads(4)
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object poll() {
+        return queue.poll();
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.LanePriorityQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Schedules jobs with a few priority levels, FIFO within a level, comparing the lane queue with {@code PriorityQueue}
+ * and {@code PriorityBlockingQueue} ordered by priority and then by sequence number. Each invocation keeps
+ * {@code backlog} jobs queued while offering and polling {@link #INBENCHMARK_ITERATIONS} jobs, single threaded.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class LanePriorityQueueBenchmark {
+
+    public static final int PRIORITIES = 8;
+    public static final int INBENCHMARK_ITERATIONS = 10_000;
+    public static final int WARMUP_ITERATIONS = 6;
+    private static final Comparator<Job> ORDER =
+            Comparator.<Job>comparingInt(job -> job.priority).thenComparingLong(job -> job.sequence);
+
+    @Param({"100", "100000"})
+    public int backlog;
+
+    private Job[] jobs;
+    private Queue<Job> lanes;
+    private Queue<Job> weightedLanes;
+    private Queue<Job> priorityQueue;
+    private Queue<Job> priorityBlockingQueue;
+    private int next;
+
+    private static final class Job {
+
+        private final int priority;
+        private final long sequence;
+
+        Job(int priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // skewed towards low priorities, like most scheduler workloads
+        jobs = new Job[backlog + INBENCHMARK_ITERATIONS];
+        for (int i = 0; i < jobs.length; i++) {
+            int priority = Integer.numberOfTrailingZeros(~(i * 0x9E3779B9 | 0xFFFFFF00)) % PRIORITIES;
+            jobs[i] = new Job(PRIORITIES - 1 - priority, i);
+        }
+        int[] weights = new int[PRIORITIES];
+        for (int i = 0; i < PRIORITIES; i++) {
+            weights[i] = PRIORITIES - i;
+        }
+        lanes = new LanePriorityQueue<>(PRIORITIES, job -> job.priority);
+        weightedLanes = new LanePriorityQueue<>(weights, job -> job.priority);
+        priorityQueue = new PriorityQueue<>(ORDER);
+        priorityBlockingQueue = new PriorityBlockingQueue<>(backlog + 1, ORDER);
+        for (int i = 0; i < backlog; i++) {
+            lanes.offer(jobs[i]);
+            weightedLanes.offer(jobs[i]);
+            priorityQueue.offer(jobs[i]);
+            priorityBlockingQueue.offer(jobs[i]);
+        }
+        next = backlog;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkLanePriorityQueue() {
+        return offerAndPoll(lanes);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkWeightedLanePriorityQueue() {
+        return offerAndPoll(weightedLanes);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkPriorityQueue() {
+        return offerAndPoll(priorityQueue);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkPriorityBlockingQueue() {
+        return offerAndPoll(priorityBlockingQueue);
+    }
+
+    private long offerAndPoll(Queue<Job> queue) {
+        long sum = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            queue.offer(jobs[next]);
+            next = next + 1 == jobs.length ? 0 : next + 1;
+            sum += queue.poll().sequence;
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.LongUnrolledDeque;
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.PrimitiveIterator;
+
+/**
+ * Queues long task ids, comparing the primitive deque with boxed deques. Run with {@code -prof gc}
+ * to see the boxing allocations.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class PrimitiveUnrolledDequeBenchmark {
+
+    public static final int INBENCHMARK_ITERATIONS = 100;
+    public static final int ADD_BATCH_SIZE = 10_000;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkAddPollLongUnrolledDeque() {
+        LongUnrolledDeque deque = new LongUnrolledDeque();
+        long sum = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            for (long j = 0; j < ADD_BATCH_SIZE; j++) {
+                deque.addLast(j);
+            }
+            for (int j = 0; j < ADD_BATCH_SIZE; j++) {
+                sum += deque.pollFirst(-1);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkAddPollBoxedUnrolledDeque() {
+        UnrolledLinkedListDeque<Long> deque = new UnrolledLinkedListDeque<>();
+        long sum = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            for (long j = 0; j < ADD_BATCH_SIZE; j++) {
+                deque.addLast(j);
+            }
+            for (int j = 0; j < ADD_BATCH_SIZE; j++) {
+                sum += deque.pollFirst();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkAddPollArrayDeque() {
+        ArrayDeque<Long> deque = new ArrayDeque<>();
+        long sum = 0;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            for (long j = 0; j < ADD_BATCH_SIZE; j++) {
+                deque.addLast(j);
+            }
+            for (int j = 0; j < ADD_BATCH_SIZE; j++) {
+                sum += deque.pollFirst();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkIterateLongUnrolledDeque(FilledDeques deques) {
+        long sum = 0;
+        PrimitiveIterator.OfLong iterator = deques.primitive.iterator();
+        while (iterator.hasNext()) {
+            sum += iterator.nextLong();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkIterateBoxedUnrolledDeque(FilledDeques deques) {
+        long sum = 0;
+        for (Long value : deques.boxed) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilledDeques {
+
+        final LongUnrolledDeque primitive = new LongUnrolledDeque();
+        final UnrolledLinkedListDeque<Long> boxed = new UnrolledLinkedListDeque<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (long i = 0; i < ADD_BATCH_SIZE * 10; i++) {
+                primitive.addLast(i);
+                boxed.addLast(i);
+            }
+        }
+
+    }
+
+}
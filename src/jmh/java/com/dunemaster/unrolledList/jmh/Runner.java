@@ -1,5 +1,7 @@
 package com.dunemaster.unrolledList.jmh;
 
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
@@ -10,6 +12,23 @@ public class Runner {
                 .include(UnrolledLinkListDequeAddBenchmark.class.getSimpleName())
                 .include(UnrolledLinkListDequeAddTwoSideBenchmark.class.getSimpleName())
                 .include(UnrolledLinkListDequeAddAndRemoveTwoSideBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeBlockBoundaryChurnBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeRemoveOccurrenceBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeToArrayBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeAdaptiveBlockSizeBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeUsagePatternBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeCopyBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeSlidingWindowBenchmark.class.getSimpleName())
+                .include(UnrolledLinkListDequeSliceConsumeBenchmark.class.getSimpleName())
+                .include(AggregatingUnrolledDequeBenchmark.class.getSimpleName())
+                .include(LanePriorityQueueBenchmark.class.getSimpleName())
+                .include(AsyncUnrolledDequeBenchmark.class.getSimpleName())
+                .include(WorkStealingExecutorBenchmark.class.getSimpleName())
+                .include(ConcurrentUnrolledQueueBenchmark.class.getSimpleName())
+                .include(PrimitiveUnrolledDequeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("build/reports/jmh/results.json")
                 .forks(1)
                 .build();
 
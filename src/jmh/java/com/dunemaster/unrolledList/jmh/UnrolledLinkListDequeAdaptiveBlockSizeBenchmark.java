@@ -0,0 +1,69 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Fills a deque to a given size and drains it again, comparing fixed block sizes with adaptive block sizing.
+ * Run with {@code -prof gc} to compare the allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeAdaptiveBlockSizeBenchmark {
+
+    public static final int WARMUP_ITERATIONS = 6;
+    public static final int ADAPTIVE_MIN_BLOCK_SIZE = 16;
+    public static final int ADAPTIVE_MAX_BLOCK_SIZE = 1024;
+    private final Object objectToAdd = new Object();
+
+    @Param({"128", "256", "1024", "adaptive"})
+    public String blockSize;
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private UnrolledLinkedListDeque<Object> filled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filled = newDeque();
+        for (int i = 0; i < size; i++) {
+            filled.addLast(objectToAdd);
+        }
+    }
+
+    private UnrolledLinkedListDeque<Object> newDeque() {
+        if ("adaptive".equals(blockSize)) {
+            return UnrolledLinkedListDeque.adaptive(ADAPTIVE_MIN_BLOCK_SIZE, ADAPTIVE_MAX_BLOCK_SIZE);
+        }
+        // no spare blocks, so that every run allocates its blocks like a newly created deque
+        return new UnrolledLinkedListDeque<>(Integer.parseInt(blockSize), 0);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkFillAndDrain() {
+        UnrolledLinkedListDeque<Object> deque = newDeque();
+        for (int i = 0; i < size; i++) {
+            deque.addLast(objectToAdd);
+        }
+        int drained = 0;
+        while (deque.pollFirst() != null) {
+            drained++;
+        }
+        return drained;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkIterate() {
+        int count = 0;
+        for (Object element : filled) {
+            if (element == objectToAdd) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
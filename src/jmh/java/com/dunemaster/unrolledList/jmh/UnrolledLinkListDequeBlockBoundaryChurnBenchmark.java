@@ -0,0 +1,62 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Keeps the deque size oscillating around a block boundary, which used to allocate and drop a block on every swing.
+ * Run with {@code -prof gc} to compare gc.alloc.rate.norm with and without spare blocks.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeBlockBoundaryChurnBenchmark {
+
+    public static final int BLOCK_SIZE = 128;
+    public static final int INBENCHMARK_ITERATIONS = 10_000;
+    public static final int SWING = 8;
+    public static final int WARMUP_ITERATIONS = 6;
+    private final Object objectToAdd = new Object();
+
+    @Param({"0", "16"})
+    public int maxSpareBlocks;
+
+    private UnrolledLinkedListDeque<Object> unrolledList;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        unrolledList = new UnrolledLinkedListDeque<>(BLOCK_SIZE, maxSpareBlocks);
+        // fill up to the end of the first block, so that the next addLast starts a new one
+        for (int i = 0; i < BLOCK_SIZE / 2; i++) {
+            unrolledList.addLast(objectToAdd);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkTailChurn() {
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            for (int j = 0; j < SWING; j++) {
+                unrolledList.addLast(objectToAdd);
+            }
+            for (int j = 0; j < SWING; j++) {
+                unrolledList.removeLast();
+            }
+        }
+        return unrolledList.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkFifoChurn() {
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            for (int j = 0; j < SWING; j++) {
+                unrolledList.addLast(objectToAdd);
+            }
+            for (int j = 0; j < SWING; j++) {
+                unrolledList.removeFirst();
+            }
+        }
+        return unrolledList.size();
+    }
+
+}
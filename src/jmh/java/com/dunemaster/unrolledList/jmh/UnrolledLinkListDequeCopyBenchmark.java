@@ -0,0 +1,72 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+
+/**
+ * Checkpoints and forks a deque, comparing serialization and {@code clone()} with {@code ArrayDeque}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeCopyBenchmark {
+
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private UnrolledLinkedListDeque<Integer> unrolledList;
+    private ArrayDeque<Integer> arrayDeque;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        unrolledList = new UnrolledLinkedListDeque<>();
+        arrayDeque = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            unrolledList.addLast(i);
+            arrayDeque.addLast(i);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public UnrolledLinkedListDeque<Integer> benchmarkUnrolledLinkedListDequeClone() {
+        return unrolledList.clone();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public ArrayDeque<Integer> benchmarkArrayDequeClone() {
+        return arrayDeque.clone();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object benchmarkUnrolledLinkedListDequeSerialization() throws IOException, ClassNotFoundException {
+        return roundTrip(unrolledList);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object benchmarkArrayDequeSerialization() throws IOException, ClassNotFoundException {
+        return roundTrip(arrayDeque);
+    }
+
+    private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * Withdraws the element at a given depth from the head with {@code removeFirstOccurrence} and appends it again,
+ * so the deque keeps its size and the next call removes the element that took its place.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeRemoveOccurrenceBenchmark {
+
+    public static final int DEQUE_SIZE = 100_000;
+    public static final int INBENCHMARK_ITERATIONS = 100;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Param({"10", "1000", "50000", "99000"})
+    public int depth;
+
+    private final Integer[] values = new Integer[DEQUE_SIZE];
+    private Deque<Integer> unrolledList;
+    private Deque<Integer> arrayDeque;
+    private Deque<Integer> linkedList;
+    private int unrolledListRemoved;
+    private int arrayDequeRemoved;
+    private int linkedListRemoved;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        unrolledList = new UnrolledLinkedListDeque<>();
+        arrayDeque = new ArrayDeque<>();
+        linkedList = new LinkedList<>();
+        for (int i = 0; i < DEQUE_SIZE; i++) {
+            values[i] = i;
+            unrolledList.addLast(values[i]);
+            arrayDeque.addLast(values[i]);
+            linkedList.addLast(values[i]);
+        }
+        unrolledListRemoved = 0;
+        arrayDequeRemoved = 0;
+        linkedListRemoved = 0;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkUnrolledLinkedListDeque() {
+        unrolledListRemoved = removeAndAppend(unrolledList, unrolledListRemoved);
+        return unrolledList.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkArrayDeque() {
+        arrayDequeRemoved = removeAndAppend(arrayDeque, arrayDequeRemoved);
+        return arrayDeque.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkLinkedList() {
+        linkedListRemoved = removeAndAppend(linkedList, linkedListRemoved);
+        return linkedList.size();
+    }
+
+    // the elements in front of depth never move, the ones behind it cycle through depth in ascending order
+    private int removeAndAppend(Deque<Integer> deque, int removed) {
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            Integer value = values[depth + removed % (DEQUE_SIZE - depth)];
+            deque.removeFirstOccurrence(value);
+            deque.addLast(value);
+            removed++;
+        }
+        return removed;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * A batch consumer takes {@link #BATCH_SIZE} elements from the head and sums them, comparing polling one element
+ * at a time, {@code pollFirst(n, dest)} and processing the head block slices in place.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeSliceConsumeBenchmark {
+
+    public static final int BATCH_SIZE = 10_000;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Param({"64", "128", "1024"})
+    public int blockSize;
+
+    private final Integer[] values = new Integer[BATCH_SIZE];
+    private final Integer[] dest = new Integer[BATCH_SIZE];
+    private UnrolledLinkedListDeque<Integer> deque;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            values[i] = i;
+        }
+        deque = new UnrolledLinkedListDeque<>(blockSize);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkPollFirst() {
+        deque.addAll(values, 0, BATCH_SIZE);
+        long sum = 0;
+        Integer value;
+        while ((value = deque.pollFirst()) != null) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkPollFirstIntoArray() {
+        deque.addAll(values, 0, BATCH_SIZE);
+        int count = deque.pollFirst(BATCH_SIZE, dest);
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += dest[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public long benchmarkConsumeFirstSlices() {
+        deque.addAll(values, 0, BATCH_SIZE);
+        long sum = 0;
+        int length;
+        while ((length = deque.firstSliceLength()) > 0) {
+            Object[] slice = deque.firstSliceArray();
+            int offset = deque.firstSliceOffset();
+            for (int i = offset; i < offset + length; i++) {
+                sum += (Integer) slice[i];
+            }
+            deque.consumeFirst(length);
+        }
+        return sum;
+    }
+
+}
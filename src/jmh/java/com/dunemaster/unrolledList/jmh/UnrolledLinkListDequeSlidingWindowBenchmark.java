@@ -0,0 +1,115 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+
+/**
+ * Keeps the last {@code window} events of a stream, comparing the evicting deque with an unbounded deque trimmed
+ * by {@code pollFirst} after each {@code addLast}, {@code ArrayDeque} trimmed the same way and a hand-rolled
+ * ring buffer. Each benchmark starts from a full window.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeSlidingWindowBenchmark {
+
+    public static final int INBENCHMARK_ITERATIONS = 1_000;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Param({"100", "10000", "1000000"})
+    public int window;
+
+    private final Object event = new Object();
+    private UnrolledLinkedListDeque<Object> evicting;
+    private UnrolledLinkedListDeque<Object> trimmed;
+    private ArrayDeque<Object> arrayDeque;
+    private RingBuffer ringBuffer;
+
+    /**
+     * The fixed capacity array a window is usually written with by hand.
+     */
+    private static final class RingBuffer {
+
+        private final Object[] elements;
+        private int head;
+        private int size;
+
+        RingBuffer(int capacity) {
+            elements = new Object[capacity];
+        }
+
+        Object add(Object element) {
+            int tail = head + size;
+            if (tail >= elements.length) {
+                tail -= elements.length;
+            }
+            Object evicted = null;
+            if (size == elements.length) {
+                evicted = elements[head];
+                head = head + 1 == elements.length ? 0 : head + 1;
+            } else {
+                size++;
+            }
+            elements[tail] = element;
+            return evicted;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        evicting = UnrolledLinkedListDeque.evicting(128, window);
+        trimmed = new UnrolledLinkedListDeque<>();
+        arrayDeque = new ArrayDeque<>(window + 1);
+        ringBuffer = new RingBuffer(window);
+        for (int i = 0; i < window; i++) {
+            evicting.addLast(event);
+            trimmed.addLast(event);
+            arrayDeque.addLast(event);
+            ringBuffer.add(event);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public int benchmarkEvictingUnrolledLinkedListDeque() {
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            evicting.addLast(event);
+        }
+        return evicting.size();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object benchmarkTrimmedUnrolledLinkedListDeque() {
+        Object last = null;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            trimmed.addLast(event);
+            last = trimmed.pollFirst();
+        }
+        return last;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object benchmarkTrimmedArrayDeque() {
+        Object last = null;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            arrayDeque.addLast(event);
+            last = arrayDeque.pollFirst();
+        }
+        return last;
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object benchmarkRingBuffer() {
+        Object last = null;
+        for (int i = 0; i < INBENCHMARK_ITERATIONS; i++) {
+            last = ringBuffer.add(event);
+        }
+        return last;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+
+/**
+ * Snapshots a deque into an array, comparing the block-wise copy with {@code ArrayDeque.toArray}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class UnrolledLinkListDequeToArrayBenchmark {
+
+    public static final int WARMUP_ITERATIONS = 6;
+    private final Object objectToAdd = new Object();
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private UnrolledLinkedListDeque<Object> unrolledList;
+    private ArrayDeque<Object> arrayDeque;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        unrolledList = new UnrolledLinkedListDeque<>();
+        arrayDeque = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            unrolledList.addLast(objectToAdd);
+            arrayDeque.addLast(objectToAdd);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object[] benchmarkUnrolledLinkedListDequeToArray() {
+        return unrolledList.toArray();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object[] benchmarkArrayDequeToArray() {
+        return arrayDeque.toArray();
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object[] benchmarkUnrolledLinkedListDequeToTypedArray() {
+        return unrolledList.toArray(new Object[0]);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public Object[] benchmarkArrayDequeToTypedArray() {
+        return arrayDeque.toArray(new Object[0]);
+    }
+
+}
@@ -0,0 +1,225 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.UnrolledLinkedListDeque;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedList;
+
+/**
+ * Single-threaded queue and stack patterns over block sizes and deque sizes, compared with {@code ArrayDeque},
+ * {@code LinkedList} and {@code ArrayList}. Elements are distinct objects, so iteration and {@code contains}
+ * touch the elements like real workloads do. Meant to be run with {@code -prof gc}, which the Gradle jmh task
+ * and {@link Runner} enable.
+ * <p>
+ * Every invocation performs {@link #OPERATIONS} operations and leaves the collection at its initial size.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = UnrolledLinkListDequeUsagePatternBenchmark.WARMUP_ITERATIONS)
+public class UnrolledLinkListDequeUsagePatternBenchmark {
+
+    public static final int OPERATIONS = 1_000;
+    public static final int SWING = 8;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    // one parameter rather than a block size sweep for every collection, the others have no block size
+    @Param({"unrolled-64", "unrolled-128", "unrolled-256", "unrolled-1024", "ArrayDeque", "LinkedList", "ArrayList"})
+    public String collection;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final Object missing = new Object();
+    private Integer[] values;
+    private Subject subject;
+    private int next;
+
+    /**
+     * The operations the patterns need, ArrayList removes from the front with remove(0).
+     */
+    private interface Subject {
+
+        void addLast(Object element);
+
+        Object pollFirst();
+
+        Object pollLast();
+
+        Collection<Object> collection();
+
+    }
+
+    private static final class DequeSubject implements Subject {
+
+        private final Deque<Object> deque;
+
+        DequeSubject(Deque<Object> deque) {
+            this.deque = deque;
+        }
+
+        @Override
+        public void addLast(Object element) {
+            deque.addLast(element);
+        }
+
+        @Override
+        public Object pollFirst() {
+            return deque.pollFirst();
+        }
+
+        @Override
+        public Object pollLast() {
+            return deque.pollLast();
+        }
+
+        @Override
+        public Collection<Object> collection() {
+            return deque;
+        }
+
+    }
+
+    private static final class ListSubject implements Subject {
+
+        private final ArrayList<Object> list = new ArrayList<>();
+
+        @Override
+        public void addLast(Object element) {
+            list.add(element);
+        }
+
+        @Override
+        public Object pollFirst() {
+            return list.remove(0);
+        }
+
+        @Override
+        public Object pollLast() {
+            return list.remove(list.size() - 1);
+        }
+
+        @Override
+        public Collection<Object> collection() {
+            return list;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void createValues() {
+        values = new Integer[size + OPERATIONS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        subject = newSubject();
+        for (int i = 0; i < size; i++) {
+            subject.addLast(values[i]);
+        }
+        next = 0;
+    }
+
+    private Subject newSubject() {
+        switch (collection) {
+            case "ArrayDeque":
+                return new DequeSubject(new ArrayDeque<>());
+            case "LinkedList":
+                return new DequeSubject(new LinkedList<>());
+            case "ArrayList":
+                return new ListSubject();
+            default:
+                int blockSize = Integer.parseInt(collection.substring("unrolled-".length()));
+                return new DequeSubject(new UnrolledLinkedListDeque<>(blockSize));
+        }
+    }
+
+    private Object nextValue() {
+        Object value = values[next];
+        next = next + 1 == values.length ? 0 : next + 1;
+        return value;
+    }
+
+    @Benchmark
+    public Object benchmarkFifoChurn() {
+        Object last = null;
+        for (int i = 0; i < OPERATIONS; i++) {
+            subject.addLast(nextValue());
+            last = subject.pollFirst();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Object benchmarkLifoChurn() {
+        Object last = null;
+        for (int i = 0; i < OPERATIONS; i++) {
+            subject.addLast(nextValue());
+            last = subject.pollLast();
+        }
+        return last;
+    }
+
+    /**
+     * Repeatedly grows the size by {@link #SWING} elements above its initial value and shrinks it back. For the
+     * unrolled deques the initial size is rounded up to fill the tail block, so every swing starts and drops a block.
+     */
+    @Benchmark
+    public Object benchmarkBlockBoundaryOscillation(BoundaryState boundary) {
+        Subject aligned = boundary.subject;
+        Object last = null;
+        for (int i = 0; i < OPERATIONS / (2 * SWING); i++) {
+            for (int j = 0; j < SWING; j++) {
+                aligned.addLast(nextValue());
+            }
+            for (int j = 0; j < SWING; j++) {
+                last = aligned.pollLast();
+            }
+        }
+        return last;
+    }
+
+    @Benchmark
+    public long benchmarkIterate() {
+        long sum = 0;
+        for (Object element : subject.collection()) {
+            sum += element.hashCode();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public boolean benchmarkContainsMissing() {
+        return subject.collection().contains(missing);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BoundaryState {
+
+        private Subject subject;
+
+        @Setup(Level.Iteration)
+        @SuppressWarnings("unchecked")
+        public void setUp(UnrolledLinkListDequeUsagePatternBenchmark benchmark) {
+            subject = benchmark.newSubject();
+            for (int i = 0; i < benchmark.size; i++) {
+                subject.addLast(benchmark.values[i]);
+            }
+            Collection<Object> collection = subject.collection();
+            if (collection instanceof UnrolledLinkedListDeque) {
+                UnrolledLinkedListDeque<Object> deque = (UnrolledLinkedListDeque<Object>) collection;
+                while (deque.tailBlockOccupancy() < 1.0) {
+                    deque.addLast(benchmark.missing);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.dunemaster.unrolledList.jmh;
+
+import com.dunemaster.unrolleddeque.WorkStealingExecutor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a binary tree of forked tasks, each task forking its children from a worker thread.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class WorkStealingExecutorBenchmark {
+
+    public static final int TREE_DEPTH = 16;
+    public static final int WARMUP_ITERATIONS = 6;
+
+    @Param({"2", "4", "8"})
+    public int parallelism;
+
+    private ExecutorService workStealingExecutor;
+    private ForkJoinPool forkJoinPool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workStealingExecutor = new WorkStealingExecutor(parallelism);
+        forkJoinPool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        workStealingExecutor.shutdown();
+        forkJoinPool.shutdown();
+        workStealingExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        forkJoinPool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public void benchmarkForkTreeWorkStealingExecutor() throws InterruptedException {
+        runTree(workStealingExecutor);
+    }
+
+    @Benchmark
+    @Warmup(iterations = WARMUP_ITERATIONS)
+    public void benchmarkForkTreeForkJoinPool() throws InterruptedException {
+        runTree(forkJoinPool);
+    }
+
+    private static void runTree(Executor executor) throws InterruptedException {
+        CountDownLatch leaves = new CountDownLatch(1 << TREE_DEPTH);
+        executor.execute(new ForkTask(executor, TREE_DEPTH, leaves));
+        leaves.await();
+    }
+
+    private static final class ForkTask implements Runnable {
+
+        private final Executor executor;
+        private final int depth;
+        private final CountDownLatch leaves;
+
+        ForkTask(Executor executor, int depth, CountDownLatch leaves) {
+            this.executor = executor;
+            this.depth = depth;
+            this.leaves = leaves;
+        }
+
+        @Override
+        public void run() {
+            if (depth == 0) {
+                leaves.countDown();
+                return;
+            }
+            executor.execute(new ForkTask(executor, depth - 1, leaves));
+            executor.execute(new ForkTask(executor, depth - 1, leaves));
+        }
+
+    }
+
+}
@@ -0,0 +1,497 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Unrolled deque that maintains an aggregate of its elements, such as the sum, minimum or maximum of a time window,
+ * so that {@link #aggregate()} does not scan the whole deque.
+ * <p>
+ * Each element is mapped to a value with {@code mapper} and the values are combined in deque order with
+ * {@code combiner}, which must be associative but need not be commutative. A block in the middle of the deque
+ * never changes, so its aggregate is computed once when it stops being the head or tail block. The blocks in between
+ * are kept as two stacks meeting at a pivot block: blocks in front of the pivot hold the aggregate from themselves
+ * to the pivot, the others the aggregate from the pivot to themselves. When a block leaves the middle from a side
+ * that is empty, the stacks are rebuilt from the other side, which is O(1) amortized for a queue or a sliding window.
+ * Only the partial head and tail blocks are combined element by element, so {@link #aggregate()} costs
+ * O(blockSize) whatever the size of the deque.
+ * <p>
+ * The deque is not thread safe, null elements are not permitted and removal from the middle is not supported.
+ */
+public class AggregatingUnrolledDeque<E, A> extends AbstractCollection<E> implements Deque<E> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private static final int DEFAULT_MAX_SPARE_BLOCKS = 16;
+    private final int blockSize;
+    private final int center;
+    private final int maxSpareBlocks;
+    private final Function<? super E, ? extends A> mapper;
+    private final BinaryOperator<A> combiner;
+    private Node<E, A> spareBlocks;
+    private int spareBlockCount;
+    private Node<E, A> head;
+    private Node<E, A> tail;
+    private int size;
+    private int indexInHeadBlock;
+    private int indexInTailBlock;
+    // first block of the back stack, null if it is empty
+    private Node<E, A> pivot;
+
+    private static final class Node<E, A> {
+
+        private final E[] elements;
+        private Node<E, A> next;
+        private Node<E, A> prev;
+        // aggregate of the block, set while it is in the middle of the deque
+        private A total;
+        // front stack: aggregate from this block to the last block before the pivot,
+        // back stack: aggregate from the pivot to this block
+        private A cumulative;
+
+        @SuppressWarnings("unchecked")
+        Node(int blockSize) {
+            elements = (E[]) new Object[blockSize];
+        }
+
+    }
+
+    /**
+     * Aggregates the elements themselves, for example with {@code Long::sum} or {@code BinaryOperator.minBy}.
+     */
+    public static <E> AggregatingUnrolledDeque<E, E> of(BinaryOperator<E> combiner) {
+        return new AggregatingUnrolledDeque<>(DEFAULT_BLOCK_SIZE, Function.identity(), combiner);
+    }
+
+    public AggregatingUnrolledDeque(Function<? super E, ? extends A> mapper, BinaryOperator<A> combiner) {
+        this(DEFAULT_BLOCK_SIZE, mapper, combiner);
+    }
+
+    public AggregatingUnrolledDeque(int blockSize, Function<? super E, ? extends A> mapper, BinaryOperator<A> combiner) {
+        this(blockSize, DEFAULT_MAX_SPARE_BLOCKS, mapper, combiner);
+    }
+
+    /**
+     * @param mapper   maps an element to the value that is aggregated
+     * @param combiner associative function combining the values of adjacent elements, the earlier one first
+     */
+    public AggregatingUnrolledDeque(int blockSize, int maxSpareBlocks, Function<? super E, ? extends A> mapper,
+                                    BinaryOperator<A> combiner) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        if (blockSize % 2 != 0) throw new IllegalArgumentException("blockSize must be even");
+        if (maxSpareBlocks < 0) throw new IllegalArgumentException("maxSpareBlocks must not be negative");
+        this.blockSize = blockSize;
+        this.center = blockSize / 2 - 1;
+        this.maxSpareBlocks = maxSpareBlocks;
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+        this.combiner = Objects.requireNonNull(combiner, "combiner");
+        head = new Node<>(blockSize);
+        setToClearState();
+    }
+
+    private void setToClearState() {
+        tail = head;
+        size = 0;
+        indexInHeadBlock = center + 1;
+        indexInTailBlock = center;
+        pivot = null;
+    }
+
+    /**
+     * @return the combined value of all elements in deque order, or null if the deque is empty
+     */
+    public A aggregate() {
+        if (size == 0) {
+            return null;
+        }
+        if (head == tail) {
+            return aggregate(head.elements, indexInHeadBlock, indexInTailBlock + 1);
+        }
+        A result = aggregate(head.elements, indexInHeadBlock, blockSize);
+        if (head.next != tail) {
+            Node<E, A> first = head.next;
+            if (first != pivot) {
+                result = combiner.apply(result, first.cumulative);
+            }
+            if (pivot != null) {
+                result = combiner.apply(result, tail.prev.cumulative);
+            }
+        }
+        return combiner.apply(result, aggregate(tail.elements, 0, indexInTailBlock + 1));
+    }
+
+    private A aggregate(E[] elements, int from, int to) {
+        A result = mapper.apply(elements[from]);
+        for (int i = from + 1; i < to; i++) {
+            result = combiner.apply(result, mapper.apply(elements[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (e == null) throw new NullPointerException();
+        indexInHeadBlock--;
+        if (indexInHeadBlock < 0) {
+            Node<E, A> newNode = allocateBlock();
+            newNode.next = head;
+            head.prev = newNode;
+            if (head != tail) {
+                pushFront(head);
+            }
+            head = newNode;
+            indexInHeadBlock = blockSize - 1;
+        }
+        head.elements[indexInHeadBlock] = e;
+        size++;
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (e == null) throw new NullPointerException();
+        indexInTailBlock++;
+        if (indexInTailBlock == blockSize) {
+            Node<E, A> newNode = allocateBlock();
+            tail.next = newNode;
+            newNode.prev = tail;
+            if (head != tail) {
+                pushBack(tail);
+            }
+            tail = newNode;
+            indexInTailBlock = 0;
+        }
+        tail.elements[indexInTailBlock] = e;
+        size++;
+    }
+
+    // the block has become the first block in the middle
+    private void pushFront(Node<E, A> block) {
+        block.total = aggregate(block.elements, 0, blockSize);
+        Node<E, A> next = block.next;
+        boolean nextInFront = next != tail && next != pivot;
+        block.cumulative = nextInFront ? combiner.apply(block.total, next.cumulative) : block.total;
+    }
+
+    // the block has become the last block in the middle
+    private void pushBack(Node<E, A> block) {
+        block.total = aggregate(block.elements, 0, blockSize);
+        if (pivot == null) {
+            pivot = block;
+            block.cumulative = block.total;
+        } else {
+            block.cumulative = combiner.apply(block.prev.cumulative, block.total);
+        }
+    }
+
+    // the first block in the middle has become the head block
+    private void popFront(Node<E, A> block) {
+        block.total = null;
+        block.cumulative = null;
+        if (block != pivot) {
+            return;
+        }
+        // the front stack is empty, turn the rest of the middle into the front stack
+        pivot = null;
+        if (block.next == tail) {
+            return;
+        }
+        Node<E, A> last = tail.prev;
+        last.cumulative = last.total;
+        for (Node<E, A> node = last.prev; node != block; node = node.prev) {
+            node.cumulative = combiner.apply(node.total, node.next.cumulative);
+        }
+    }
+
+    // the last block in the middle has become the tail block
+    private void popBack(Node<E, A> block) {
+        block.total = null;
+        block.cumulative = null;
+        if (pivot != null) {
+            if (block == pivot) {
+                pivot = null;
+            }
+            return;
+        }
+        // the back stack is empty, turn the rest of the middle into the back stack
+        if (block.prev == head) {
+            return;
+        }
+        pivot = head.next;
+        pivot.cumulative = pivot.total;
+        for (Node<E, A> node = pivot.next; node != block; node = node.next) {
+            node.cumulative = combiner.apply(node.prev.cumulative, node.total);
+        }
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        throwIfEmpty();
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        throwIfEmpty();
+        return pollLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        if (size == 0) {
+            return null;
+        }
+        E element = head.elements[indexInHeadBlock];
+        head.elements[indexInHeadBlock] = null; // releasing memory!
+        indexInHeadBlock++;
+        size--;
+        if (size == 0) {
+            setToClearState();
+        } else if (indexInHeadBlock == blockSize) {
+            Node<E, A> removed = head;
+            head = head.next;
+            head.prev = null;
+            if (head != tail) {
+                popFront(head);
+            }
+            releaseBlock(removed);
+            indexInHeadBlock = 0;
+        }
+        return element;
+    }
+
+    @Override
+    public E pollLast() {
+        if (size == 0) {
+            return null;
+        }
+        E element = tail.elements[indexInTailBlock];
+        tail.elements[indexInTailBlock] = null; // releasing memory!
+        indexInTailBlock--;
+        size--;
+        if (size == 0) {
+            setToClearState();
+        } else if (indexInTailBlock < 0) {
+            Node<E, A> removed = tail;
+            tail = tail.prev;
+            tail.next = null;
+            if (head != tail) {
+                popBack(tail);
+            }
+            releaseBlock(removed);
+            indexInTailBlock = blockSize - 1;
+        }
+        return element;
+    }
+
+    @Override
+    public E getFirst() {
+        throwIfEmpty();
+        return head.elements[indexInHeadBlock];
+    }
+
+    @Override
+    public E getLast() {
+        throwIfEmpty();
+        return tail.elements[indexInTailBlock];
+    }
+
+    @Override
+    public E peekFirst() {
+        return size == 0 ? null : head.elements[indexInHeadBlock];
+    }
+
+    @Override
+    public E peekLast() {
+        return size == 0 ? null : tail.elements[indexInTailBlock];
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean add(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        head = new Node<>(blockSize);
+        setToClearState();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node<E, A> currentBlock = head;
+            private int indexInCurrentBlock = indexInHeadBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock++;
+                remaining--;
+                if (indexInCurrentBlock == blockSize && remaining > 0) {
+                    currentBlock = currentBlock.next;
+                    indexInCurrentBlock = 0;
+                }
+                return element;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new Iterator<E>() {
+            private Node<E, A> currentBlock = tail;
+            private int indexInCurrentBlock = indexInTailBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock--;
+                remaining--;
+                if (indexInCurrentBlock < 0 && remaining > 0) {
+                    currentBlock = currentBlock.prev;
+                    indexInCurrentBlock = blockSize - 1;
+                }
+                return element;
+            }
+        };
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        throw new UnsupportedOperationException();
+    }
+
+    private Node<E, A> allocateBlock() {
+        Node<E, A> node = spareBlocks;
+        if (node == null) {
+            return new Node<>(blockSize);
+        }
+        spareBlocks = node.next;
+        node.next = null;
+        spareBlockCount--;
+        return node;
+    }
+
+    /**
+     * The block must already be unlinked from the deque and all its elements nulled out.
+     */
+    private void releaseBlock(Node<E, A> node) {
+        node.prev = null;
+        node.total = null;
+        node.cumulative = null;
+        if (spareBlockCount < maxSpareBlocks) {
+            node.next = spareBlocks;
+            spareBlocks = node;
+            spareBlockCount++;
+        } else {
+            node.next = null;
+        }
+    }
+
+    private void throwIfEmpty() {
+        if (size == 0)
+            throw new NoSuchElementException();
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread safe FIFO queue backed by an {@link UnrolledLinkedListDeque} for asynchronous consumers, which wait for
+ * elements without parking a thread each.
+ * <p>
+ * {@link #pollFirstAsync()} returns a future completed with the next element, and {@link #subscribe} attaches
+ * a subscriber that receives elements as it requests them. Every element goes to exactly one consumer: waiting futures
+ * are served first, in the order they were created, then subscribers with outstanding demand.
+ * <p>
+ * A subscriber's elements are taken from the deque in block-sized batches under a single lock acquisition
+ * and delivered on the subscriber's executor, one call at a time. {@link Subscriber} and {@link Subscription} have
+ * the shape of {@code java.util.concurrent.Flow}, which is not available in Java 8, so on newer JDKs a Flow subscriber
+ * can be attached with a small adapter. The publisher never completes.
+ * <p>
+ * Null elements are not permitted.
+ */
+public class AsyncUnrolledDeque<E> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private final int blockSize;
+    private final UnrolledLinkedListDeque<E> deque;
+    private final UnrolledLinkedListDeque<CompletableFuture<E>> waitingFutures;
+    // subscriptions with demand that found the deque empty
+    private final UnrolledLinkedListDeque<DequeSubscription> waitingSubscriptions;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Receives the elements of a subscription, like {@code java.util.concurrent.Flow.Subscriber}.
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+
+    }
+
+    /**
+     * Like {@code java.util.concurrent.Flow.Subscription}.
+     */
+    public interface Subscription {
+
+        /**
+         * Adds {@code n} elements to the demand, {@link Long#MAX_VALUE} means unbounded.
+         */
+        void request(long n);
+
+        void cancel();
+
+    }
+
+    public AsyncUnrolledDeque() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param blockSize block size of the deque and maximum number of elements delivered to a subscriber per batch
+     */
+    public AsyncUnrolledDeque(int blockSize) {
+        this.deque = new UnrolledLinkedListDeque<>(blockSize);
+        this.blockSize = blockSize;
+        this.waitingFutures = new UnrolledLinkedListDeque<>();
+        this.waitingSubscriptions = new UnrolledLinkedListDeque<>();
+    }
+
+    /**
+     * Hands the element to the oldest waiting future, or adds it at the tail.
+     */
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        while (true) {
+            CompletableFuture<E> future;
+            DequeSubscription subscription = null;
+            lock.lock();
+            try {
+                do {
+                    future = waitingFutures.pollFirst();
+                } while (future != null && future.isDone());
+                if (future == null) {
+                    deque.addLast(e);
+                    subscription = nextWaitingSubscription();
+                }
+            } finally {
+                lock.unlock();
+            }
+            // completed outside the lock, the future's dependent actions may run in this thread
+            if (future == null) {
+                if (subscription != null) {
+                    subscription.signal();
+                }
+                return true;
+            }
+            if (future.complete(e)) {
+                return true;
+            }
+            // cancelled after it was taken, try the next one
+        }
+    }
+
+    // called with lock held
+    private DequeSubscription nextWaitingSubscription() {
+        DequeSubscription subscription;
+        do {
+            subscription = waitingSubscriptions.pollFirst();
+        } while (subscription != null && subscription.cancelled);
+        if (subscription != null) {
+            subscription.waiting = false;
+        }
+        return subscription;
+    }
+
+    /**
+     * @return the first element, or null if the deque is empty
+     */
+    public E pollFirst() {
+        lock.lock();
+        try {
+            return deque.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a future completed with the first element, right away if the deque is not empty, otherwise when
+     * an element is offered. Cancelling the future gives up its turn.
+     */
+    public CompletableFuture<E> pollFirstAsync() {
+        lock.lock();
+        try {
+            E e = deque.pollFirst();
+            if (e != null) {
+                return CompletableFuture.completedFuture(e);
+            }
+            CompletableFuture<E> future = new CompletableFuture<>();
+            waitingFutures.addLast(future);
+            // offer removes the futures it completes, cancelled ones are removed here so they do not pile up
+            future.whenComplete((element, failure) -> {
+                if (failure != null) {
+                    removeWaitingFuture(future);
+                }
+            });
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeWaitingFuture(CompletableFuture<E> future) {
+        lock.lock();
+        try {
+            waitingFutures.removeFirstOccurrence(future);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of futures from {@link #pollFirstAsync()} waiting for an element
+     */
+    public int waitingFutureCount() {
+        lock.lock();
+        try {
+            return waitingFutures.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return deque.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Attaches a subscriber, whose {@code onSubscribe}, {@code onNext} and {@code onError} calls run on
+     * {@code executor}, one at a time.
+     */
+    public void subscribe(Subscriber<? super E> subscriber, Executor executor) {
+        DequeSubscription subscription = new DequeSubscription(
+                Objects.requireNonNull(subscriber, "subscriber"), Objects.requireNonNull(executor, "executor"));
+        executor.execute(subscription);
+    }
+
+    private final class DequeSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super E> subscriber;
+        private final Executor executor;
+        private final AtomicLong requested = new AtomicLong();
+        // the number of signals not yet handled by the delivery loop, which runs while it is positive. Starts at one
+        // for the first run, which calls onSubscribe, so that requests made there do not start a second loop
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final Object[] batch = new Object[blockSize];
+        private volatile boolean cancelled;
+        // an invalid request, reported by the delivery loop so that onError never runs concurrently with onNext
+        private volatile Throwable error;
+        // only accessed by the delivery loop
+        private boolean subscribed;
+        private boolean terminated;
+        // guarded by lock
+        private boolean waiting;
+
+        DequeSubscription(Subscriber<? super E> subscriber, Executor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("non-positive request " + n);
+                cancelled = true;
+                signal();
+                return;
+            }
+            requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            // lets the delivery loop clean up
+            signal();
+        }
+
+        void signal() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int signals = 1;
+            do {
+                if (!terminated) {
+                    if (!subscribed) {
+                        subscribed = true;
+                        try {
+                            subscriber.onSubscribe(this);
+                        } catch (Throwable t) {
+                            terminate(t, 0, 0);
+                        }
+                    }
+                    if (!terminated) {
+                        deliver();
+                    }
+                    if (cancelled && !terminated) {
+                        terminate(error, 0, 0);
+                    }
+                }
+                signals = pending.addAndGet(-signals);
+            } while (signals != 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver() {
+            long demand = requested.get();
+            while (demand > 0 && !cancelled) {
+                int count;
+                lock.lock();
+                try {
+                    count = deque.drainFirst(batch, 0, (int) Math.min(demand, batch.length));
+                    if (count == 0 && !waiting) {
+                        waiting = true;
+                        waitingSubscriptions.addLast(this);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (count == 0) {
+                    return;
+                }
+                for (int i = 0; i < count; i++) {
+                    E element = (E) batch[i];
+                    batch[i] = null;
+                    try {
+                        subscriber.onNext(element);
+                    } catch (Throwable t) {
+                        terminate(t, i + 1, count - i - 1);
+                        return;
+                    }
+                }
+                demand = requested.addAndGet(-count);
+            }
+        }
+
+        // ends the subscription: leaves the waiting subscriptions, returns undelivered elements to the head and wakes
+        // the next subscriber, which this one may have been woken instead of
+        @SuppressWarnings("unchecked")
+        private void terminate(Throwable failure, int offset, int length) {
+            cancelled = true;
+            terminated = true;
+            DequeSubscription next = null;
+            lock.lock();
+            try {
+                if (waiting) {
+                    waiting = false;
+                    waitingSubscriptions.removeFirstOccurrence(this);
+                }
+                deque.addAllFirst((E[]) batch, offset, length);
+                if (!deque.isEmpty()) {
+                    next = nextWaitingSubscription();
+                }
+            } finally {
+                lock.unlock();
+            }
+            Arrays.fill(batch, offset, offset + length, null);
+            if (next != null) {
+                next.signal();
+            }
+            if (failure != null) {
+                subscriber.onError(failure);
+            }
+        }
+
+    }
+
+}
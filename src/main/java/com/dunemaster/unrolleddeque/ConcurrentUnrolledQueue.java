@@ -0,0 +1,203 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Lock-free multi-producer multi-consumer FIFO queue laid out in blocks like {@link UnrolledLinkedListDeque}.
+ * <p>
+ * Producers and consumers claim slots inside the current block with a fetch-and-add on its enqueue or dequeue index,
+ * so there is one allocation per block rather than per element. A producer that overflows the tail block links
+ * a new one with a CAS. A consumer that claims a slot before the producer has filled it marks the slot as taken
+ * and the producer retries with another slot.
+ * <p>
+ * Null elements are not permitted. {@link #size()} and the iterator are weakly consistent.
+ */
+public class ConcurrentUnrolledQueue<E> extends AbstractQueue<E> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private static final Object TAKEN = new Object();
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentUnrolledQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentUnrolledQueue.class, Node.class, "head");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentUnrolledQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentUnrolledQueue.class, Node.class, "tail");
+    private final int blockSize;
+    private volatile Node head;
+    private volatile Node tail;
+
+    private static final class Node {
+
+        private static final AtomicIntegerFieldUpdater<Node> ENQUEUE_INDEX =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "enqueueIndex");
+        private static final AtomicIntegerFieldUpdater<Node> DEQUEUE_INDEX =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "dequeueIndex");
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        private final AtomicReferenceArray<Object> elements;
+        private volatile int enqueueIndex;
+        private volatile int dequeueIndex;
+        private volatile Node next;
+
+        Node(int blockSize) {
+            elements = new AtomicReferenceArray<>(blockSize);
+        }
+
+        // the first element is placed before the node is published
+        Node(int blockSize, Object first) {
+            this(blockSize);
+            elements.lazySet(0, first);
+            enqueueIndex = 1;
+        }
+
+        boolean casNext(Node expected, Node value) {
+            return NEXT.compareAndSet(this, expected, value);
+        }
+
+    }
+
+    public ConcurrentUnrolledQueue() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public ConcurrentUnrolledQueue(int blockSize) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        this.blockSize = blockSize;
+        head = tail = new Node(blockSize);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new NullPointerException();
+        while (true) {
+            Node t = tail;
+            int index = Node.ENQUEUE_INDEX.getAndIncrement(t);
+            if (index < blockSize) {
+                if (t.elements.compareAndSet(index, null, e)) {
+                    return true;
+                }
+                // a consumer has given up on this slot, take another one
+                continue;
+            }
+            if (t != tail) {
+                continue;
+            }
+            Node next = t.next;
+            if (next == null) {
+                Node node = new Node(blockSize, e);
+                if (t.casNext(null, node)) {
+                    TAIL.compareAndSet(this, t, node);
+                    return true;
+                }
+            } else {
+                TAIL.compareAndSet(this, t, next);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            Node h = head;
+            if (h.dequeueIndex >= h.enqueueIndex && h.next == null) {
+                return null;
+            }
+            int index = Node.DEQUEUE_INDEX.getAndIncrement(h);
+            if (index >= blockSize) {
+                Node next = h.next;
+                if (next == null) {
+                    return null;
+                }
+                HEAD.compareAndSet(this, h, next);
+                continue;
+            }
+            Object element = h.elements.getAndSet(index, TAKEN);
+            if (element != null) {
+                return (E) element;
+            }
+            // the producer that claimed this slot has not written it yet, it will retry elsewhere
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        for (Node node = head; node != null; node = node.next) {
+            int end = Math.min(node.enqueueIndex, blockSize);
+            for (int i = Math.min(node.dequeueIndex, blockSize); i < end; i++) {
+                Object element = node.elements.get(i);
+                if (element != null && element != TAKEN) {
+                    return (E) element;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    @Override
+    public int size() {
+        long count = 0;
+        for (Node node = head; node != null; node = node.next) {
+            int enqueued = Math.min(node.enqueueIndex, blockSize);
+            int dequeued = Math.min(node.dequeueIndex, blockSize);
+            count += Math.max(0, enqueued - dequeued);
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Weakly consistent iterator, it may or may not reflect concurrent updates. Removal is not supported.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node currentBlock = head;
+            private int indexInCurrentBlock = Math.min(currentBlock.dequeueIndex, blockSize);
+            private E nextElement = advance();
+
+            @SuppressWarnings("unchecked")
+            private E advance() {
+                while (currentBlock != null) {
+                    int end = Math.min(currentBlock.enqueueIndex, blockSize);
+                    while (indexInCurrentBlock < end) {
+                        Object element = currentBlock.elements.get(indexInCurrentBlock++);
+                        if (element != null && element != TAKEN) {
+                            return (E) element;
+                        }
+                    }
+                    currentBlock = currentBlock.next;
+                    indexInCurrentBlock = 0;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextElement != null;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = nextElement;
+                nextElement = advance();
+                return element;
+            }
+        };
+    }
+
+}
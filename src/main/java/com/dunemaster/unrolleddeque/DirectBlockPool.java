@@ -0,0 +1,70 @@
+package com.dunemaster.unrolleddeque;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of equally sized direct {@link ByteBuffer} blocks for {@link OffHeapRecordDeque}.
+ * <p>
+ * Direct memory is expensive to allocate and is only returned to the system when the owning buffer is
+ * garbage collected, so released blocks are kept here, up to {@code maxPooledBlocks}, and handed out again.
+ * The pool can be shared by several deques and is thread safe.
+ */
+public class DirectBlockPool {
+
+    private final int blockBytes;
+    private final int maxPooledBlocks;
+    private final ArrayDeque<ByteBuffer> pooled = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public DirectBlockPool(int blockBytes, int maxPooledBlocks) {
+        if (blockBytes <= 0) throw new IllegalArgumentException("blockBytes must be positive");
+        if (maxPooledBlocks < 0) throw new IllegalArgumentException("maxPooledBlocks must not be negative");
+        this.blockBytes = blockBytes;
+        this.maxPooledBlocks = maxPooledBlocks;
+    }
+
+    public int blockBytes() {
+        return blockBytes;
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer block;
+        lock.lock();
+        try {
+            block = pooled.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+        if (block == null) {
+            return ByteBuffer.allocateDirect(blockBytes);
+        }
+        block.clear();
+        return block;
+    }
+
+    public void release(ByteBuffer block) {
+        if (block.capacity() != blockBytes || !block.isDirect()) {
+            throw new IllegalArgumentException("block does not belong to this pool");
+        }
+        lock.lock();
+        try {
+            if (pooled.size() < maxPooledBlocks) {
+                pooled.addFirst(block);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pooledBlocks() {
+        lock.lock();
+        try {
+            return pooled.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
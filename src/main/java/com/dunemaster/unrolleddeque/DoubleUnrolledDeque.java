@@ -0,0 +1,361 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Unrolled deque of {@code double} values, with the same layout and semantics as {@link UnrolledLinkedListDeque}
+ * but storing the values in {@code double[]} blocks without boxing.
+ * <p>
+ * Poll and peek methods come in two flavours: one returning an {@link OptionalDouble} and one returning
+ * a caller supplied value when the deque is empty, which does not allocate.
+ * <p>
+ * The class is specialized by hand rather than generated from a template, {@link IntUnrolledDeque}
+ * and {@link LongUnrolledDeque} are the same code for their value types, so fixes apply to all three.
+ */
+public class DoubleUnrolledDeque {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private static final int DEFAULT_MAX_SPARE_BLOCKS = 16;
+    private static final Node PLACEHOLDER = new Node(0);
+    private final int blockSize;
+    private final int center;
+    private final int maxSpareBlocks;
+    private Node spareBlocks;
+    private int spareBlockCount;
+    private Node head;
+    private Node tail;
+    private int size;
+    private int indexInHeadBlock;
+    private int indexInTailBlock;
+
+    private static final class Node {
+
+        private final double[] elements;
+        private Node next;
+        private Node prev;
+
+        Node(int blockSize) {
+            elements = new double[blockSize];
+        }
+
+    }
+
+    public DoubleUnrolledDeque() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public DoubleUnrolledDeque(int blockSize) {
+        this(blockSize, DEFAULT_MAX_SPARE_BLOCKS);
+    }
+
+    public DoubleUnrolledDeque(int blockSize, int maxSpareBlocks) {
+        this.blockSize = blockSize;
+        this.center = blockSize / 2 - 1;
+        this.maxSpareBlocks = maxSpareBlocks;
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        if (blockSize % 2 != 0) throw new IllegalArgumentException("blockSize must be even");
+        if (maxSpareBlocks < 0) throw new IllegalArgumentException("maxSpareBlocks must not be negative");
+        head = PLACEHOLDER;
+        setToClearState();
+    }
+
+    private void setToClearState() {
+        tail = head;
+        size = 0;
+        indexInHeadBlock = center + 1;
+        indexInTailBlock = center;
+    }
+
+    public void addFirst(double e) {
+        indexInHeadBlock--;
+        if (head == PLACEHOLDER) {
+            head = allocateBlock();
+            tail = head;
+        } else if (indexInHeadBlock < 0) {
+            Node newNode = allocateBlock();
+            newNode.next = head;
+            head.prev = newNode;
+            head = newNode;
+            indexInHeadBlock = blockSize - 1;
+        }
+        head.elements[indexInHeadBlock] = e;
+        size++;
+    }
+
+    public void addLast(double e) {
+        indexInTailBlock++;
+        if (head == PLACEHOLDER) {
+            head = allocateBlock();
+            tail = head;
+        } else if (indexInTailBlock == blockSize) {
+            Node newNode = allocateBlock();
+            tail.next = newNode;
+            newNode.prev = tail;
+            tail = newNode;
+            indexInTailBlock = 0;
+        }
+        tail.elements[indexInTailBlock] = e;
+        size++;
+    }
+
+    public void push(double e) {
+        addFirst(e);
+    }
+
+    public double removeFirst() {
+        throwIfEmpty();
+        return unlinkFirst();
+    }
+
+    public double removeLast() {
+        throwIfEmpty();
+        return unlinkLast();
+    }
+
+    public double pop() {
+        return removeFirst();
+    }
+
+    /**
+     * @return the first value, or {@code emptyValue} if the deque is empty
+     */
+    public double pollFirst(double emptyValue) {
+        return size == 0 ? emptyValue : unlinkFirst();
+    }
+
+    /**
+     * @return the last value, or {@code emptyValue} if the deque is empty
+     */
+    public double pollLast(double emptyValue) {
+        return size == 0 ? emptyValue : unlinkLast();
+    }
+
+    public OptionalDouble pollFirst() {
+        return size == 0 ? OptionalDouble.empty() : OptionalDouble.of(unlinkFirst());
+    }
+
+    public OptionalDouble pollLast() {
+        return size == 0 ? OptionalDouble.empty() : OptionalDouble.of(unlinkLast());
+    }
+
+    public double getFirst() {
+        throwIfEmpty();
+        return head.elements[indexInHeadBlock];
+    }
+
+    public double getLast() {
+        throwIfEmpty();
+        return tail.elements[indexInTailBlock];
+    }
+
+    public double peekFirst(double emptyValue) {
+        return size == 0 ? emptyValue : head.elements[indexInHeadBlock];
+    }
+
+    public double peekLast(double emptyValue) {
+        return size == 0 ? emptyValue : tail.elements[indexInTailBlock];
+    }
+
+    public OptionalDouble peekFirst() {
+        return size == 0 ? OptionalDouble.empty() : OptionalDouble.of(head.elements[indexInHeadBlock]);
+    }
+
+    public OptionalDouble peekLast() {
+        return size == 0 ? OptionalDouble.empty() : OptionalDouble.of(tail.elements[indexInTailBlock]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = PLACEHOLDER;
+        setToClearState();
+    }
+
+    /**
+     * Compares like {@link Double#equals}, so {@code NaN} is found and {@code -0.0} is not {@code 0.0}.
+     */
+    public boolean contains(double value) {
+        long bits = Double.doubleToLongBits(value);
+        PrimitiveIterator.OfDouble iterator = iterator();
+        while (iterator.hasNext()) {
+            if (Double.doubleToLongBits(iterator.nextDouble()) == bits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        Node block = head;
+        int index = indexInHeadBlock;
+        int remaining = size;
+        while (remaining > 0) {
+            int end = Math.min(blockSize, index + remaining);
+            double[] elements = block.elements;
+            for (int i = index; i < end; i++) {
+                action.accept(elements[i]);
+            }
+            remaining -= end - index;
+            block = block.next;
+            index = 0;
+        }
+    }
+
+    public double[] toArray() {
+        double[] result = new double[size];
+        Node block = head;
+        int index = indexInHeadBlock;
+        int copied = 0;
+        while (copied < size) {
+            int run = Math.min(blockSize - index, size - copied);
+            System.arraycopy(block.elements, index, result, copied, run);
+            copied += run;
+            block = block.next;
+            index = 0;
+        }
+        return result;
+    }
+
+    public DoubleStream stream() {
+        Spliterator.OfDouble spliterator = Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.SIZED);
+        return StreamSupport.doubleStream(spliterator, false);
+    }
+
+    public PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private Node currentBlock = head;
+            private int indexInCurrentBlock = indexInHeadBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                double element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock++;
+                remaining--;
+                if (indexInCurrentBlock == blockSize && remaining > 0) {
+                    currentBlock = currentBlock.next;
+                    indexInCurrentBlock = 0;
+                }
+                return element;
+            }
+        };
+    }
+
+    public PrimitiveIterator.OfDouble descendingIterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private Node currentBlock = tail;
+            private int indexInCurrentBlock = indexInTailBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                double element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock--;
+                remaining--;
+                if (indexInCurrentBlock < 0 && remaining > 0) {
+                    currentBlock = currentBlock.prev;
+                    indexInCurrentBlock = blockSize - 1;
+                }
+                return element;
+            }
+        };
+    }
+
+    private Node allocateBlock() {
+        Node node = spareBlocks;
+        if (node == null) {
+            return new Node(blockSize);
+        }
+        spareBlocks = node.next;
+        node.next = null;
+        spareBlockCount--;
+        return node;
+    }
+
+    private void releaseBlock(Node node) {
+        node.prev = null;
+        if (spareBlockCount < maxSpareBlocks) {
+            node.next = spareBlocks;
+            spareBlocks = node;
+            spareBlockCount++;
+        } else {
+            node.next = null;
+        }
+    }
+
+    // primitive values hold no references, so unlike UnrolledLinkedListDeque the slots are not cleared
+    private double unlinkFirst() {
+        double element = head.elements[indexInHeadBlock];
+        indexInHeadBlock++;
+        if (indexInHeadBlock == blockSize) {
+            if (head != tail) {
+                Node removed = head;
+                head = head.next;
+                head.prev = null;
+                releaseBlock(removed);
+            }
+            indexInHeadBlock = 0;
+        }
+        size--;
+        if (size == 0) {
+            setToClearState();
+        }
+        return element;
+    }
+
+    private double unlinkLast() {
+        double element = tail.elements[indexInTailBlock];
+        indexInTailBlock--;
+        size--;
+        if (indexInTailBlock < 0) {
+            if (head == tail) {
+                if (size == 0) {
+                    setToClearState();
+                }
+            } else {
+                Node removed = tail;
+                tail = tail.prev;
+                tail.next = null;
+                releaseBlock(removed);
+                indexInTailBlock = blockSize - 1;
+            }
+        }
+        return element;
+    }
+
+    private void throwIfEmpty() {
+        if (size == 0)
+            throw new NoSuchElementException();
+    }
+
+}
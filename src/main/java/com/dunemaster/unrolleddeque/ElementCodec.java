@@ -0,0 +1,21 @@
+package com.dunemaster.unrolleddeque;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes the elements of a {@link SpillingUnrolledDeque} when their block is written to the spill file.
+ */
+public interface ElementCodec<E> {
+
+    /**
+     * Writes the element at the current position of {@code target}.
+     * A {@link java.nio.BufferOverflowException} makes the deque retry with a larger buffer.
+     */
+    void encode(E element, ByteBuffer target);
+
+    /**
+     * Reads an element written by {@link #encode} from the current position of {@code source}.
+     */
+    E decode(ByteBuffer source);
+
+}
@@ -0,0 +1,319 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Unrolled deque whose elements carry the time they were added, so that stale elements can be dropped from the head
+ * before dispatch with {@link #expireOlderThan(long)}.
+ * <p>
+ * The timestamps are kept in a {@code long[]} next to the elements of each block, together with the newest timestamp
+ * in the block. A head block whose newest timestamp has expired is dropped in one step, only the block on the boundary
+ * between expired and live elements is scanned. Expired elements can be handed to a callback, one batch per block.
+ * <p>
+ * Expiration removes the expired elements at the head, up to the first live one. When elements are added
+ * in timestamp order, which is the case for {@link #add} with a monotonic clock, these are all the expired elements.
+ * <p>
+ * The deque is not thread safe, null elements are not permitted and removal from the middle is not supported.
+ */
+public class ExpiringUnrolledDeque<E> extends AbstractCollection<E> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private static final int DEFAULT_MAX_SPARE_BLOCKS = 16;
+    private final int blockSize;
+    private final int center;
+    private final int maxSpareBlocks;
+    private final LongSupplier clock;
+    private final Consumer<? super List<E>> onExpired;
+    private Node<E> spareBlocks;
+    private int spareBlockCount;
+    private Node<E> head;
+    private Node<E> tail;
+    private int size;
+    private int indexInHeadBlock;
+    private int indexInTailBlock;
+
+    private static final class Node<E> {
+
+        private final E[] elements;
+        private final long[] timestamps;
+        // newest timestamp ever stored in the block, not lowered by removals
+        private long newest = Long.MIN_VALUE;
+        private Node<E> next;
+        private Node<E> prev;
+
+        @SuppressWarnings("unchecked")
+        Node(int blockSize) {
+            elements = (E[]) new Object[blockSize];
+            timestamps = new long[blockSize];
+        }
+
+    }
+
+    /**
+     * Creates a deque stamping the elements added with {@link #add} with {@link System#nanoTime()}.
+     */
+    public ExpiringUnrolledDeque() {
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_MAX_SPARE_BLOCKS, System::nanoTime, null);
+    }
+
+    /**
+     * @param clock     stamps the elements added with {@link #add}
+     * @param onExpired receives the expired elements in batches, after they have been removed, so it may modify
+     *                  the deque. May be null.
+     */
+    public ExpiringUnrolledDeque(int blockSize, int maxSpareBlocks, LongSupplier clock, Consumer<? super List<E>> onExpired) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        if (blockSize % 2 != 0) throw new IllegalArgumentException("blockSize must be even");
+        if (maxSpareBlocks < 0) throw new IllegalArgumentException("maxSpareBlocks must not be negative");
+        this.blockSize = blockSize;
+        this.center = blockSize / 2 - 1;
+        this.maxSpareBlocks = maxSpareBlocks;
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.onExpired = onExpired;
+        head = new Node<>(blockSize);
+        setToClearState();
+    }
+
+    private void setToClearState() {
+        tail = head;
+        size = 0;
+        indexInHeadBlock = center + 1;
+        indexInTailBlock = center;
+        head.newest = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds the element at the tail, stamped with the current time of the clock.
+     */
+    @Override
+    public boolean add(E e) {
+        addLast(e, clock.getAsLong());
+        return true;
+    }
+
+    public void addFirst(E e, long timestamp) {
+        if (e == null) throw new NullPointerException();
+        indexInHeadBlock--;
+        if (indexInHeadBlock < 0) {
+            Node<E> newNode = allocateBlock();
+            newNode.next = head;
+            head.prev = newNode;
+            head = newNode;
+            indexInHeadBlock = blockSize - 1;
+        }
+        head.elements[indexInHeadBlock] = e;
+        head.timestamps[indexInHeadBlock] = timestamp;
+        head.newest = Math.max(head.newest, timestamp);
+        size++;
+    }
+
+    public void addLast(E e, long timestamp) {
+        if (e == null) throw new NullPointerException();
+        indexInTailBlock++;
+        if (indexInTailBlock == blockSize) {
+            Node<E> newNode = allocateBlock();
+            tail.next = newNode;
+            newNode.prev = tail;
+            tail = newNode;
+            indexInTailBlock = 0;
+        }
+        tail.elements[indexInTailBlock] = e;
+        tail.timestamps[indexInTailBlock] = timestamp;
+        tail.newest = Math.max(tail.newest, timestamp);
+        size++;
+    }
+
+    /**
+     * Removes the elements at the head whose timestamp is less than {@code cutoff}, up to the first one that is not,
+     * and passes them to the callback.
+     *
+     * @return the number of elements removed
+     */
+    public int expireOlderThan(long cutoff) {
+        int expired = 0;
+        while (size > 0) {
+            int end = head == tail ? indexInTailBlock + 1 : blockSize;
+            int to = end;
+            if (head.newest >= cutoff) {
+                // the boundary block
+                to = indexInHeadBlock;
+                long[] timestamps = head.timestamps;
+                while (to < end && timestamps[to] < cutoff) {
+                    to++;
+                }
+            }
+            if (to > indexInHeadBlock) {
+                // copied and removed before the callback, which may modify the deque
+                List<E> batch = null;
+                if (onExpired != null) {
+                    batch = Arrays.asList(Arrays.copyOfRange(head.elements, indexInHeadBlock, to));
+                }
+                expired += removeHeadRun(to);
+                if (batch != null) {
+                    onExpired.accept(batch);
+                }
+            }
+            if (to < end) {
+                break;
+            }
+        }
+        return expired;
+    }
+
+    // removes the elements of the head block before index to, which is at most the end of its elements
+    private int removeHeadRun(int to) {
+        int from = indexInHeadBlock;
+        Arrays.fill(head.elements, from, to, null); // releasing memory!
+        size -= to - from;
+        indexInHeadBlock = to;
+        if (size == 0) {
+            setToClearState();
+        } else if (to == blockSize) {
+            Node<E> removed = head;
+            head = head.next;
+            head.prev = null;
+            releaseBlock(removed);
+            indexInHeadBlock = 0;
+        }
+        return to - from;
+    }
+
+    public E pollFirst() {
+        if (size == 0) {
+            return null;
+        }
+        E element = head.elements[indexInHeadBlock];
+        removeHeadRun(indexInHeadBlock + 1);
+        return element;
+    }
+
+    public E pollLast() {
+        if (size == 0) {
+            return null;
+        }
+        E element = tail.elements[indexInTailBlock];
+        tail.elements[indexInTailBlock] = null; // releasing memory!
+        indexInTailBlock--;
+        size--;
+        if (size == 0) {
+            setToClearState();
+        } else if (indexInTailBlock < 0) {
+            Node<E> removed = tail;
+            tail = tail.prev;
+            tail.next = null;
+            releaseBlock(removed);
+            indexInTailBlock = blockSize - 1;
+        }
+        return element;
+    }
+
+    public E peekFirst() {
+        return size == 0 ? null : head.elements[indexInHeadBlock];
+    }
+
+    public E peekLast() {
+        return size == 0 ? null : tail.elements[indexInTailBlock];
+    }
+
+    /**
+     * @return the timestamp of the first element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long firstTimestamp() {
+        throwIfEmpty();
+        return head.timestamps[indexInHeadBlock];
+    }
+
+    /**
+     * @return the timestamp of the last element
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long lastTimestamp() {
+        throwIfEmpty();
+        return tail.timestamps[indexInTailBlock];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        head = new Node<>(blockSize);
+        setToClearState();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node<E> currentBlock = head;
+            private int indexInCurrentBlock = indexInHeadBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock++;
+                remaining--;
+                if (indexInCurrentBlock == blockSize && remaining > 0) {
+                    currentBlock = currentBlock.next;
+                    indexInCurrentBlock = 0;
+                }
+                return element;
+            }
+        };
+    }
+
+    private Node<E> allocateBlock() {
+        Node<E> node = spareBlocks;
+        if (node == null) {
+            return new Node<>(blockSize);
+        }
+        spareBlocks = node.next;
+        node.next = null;
+        spareBlockCount--;
+        return node;
+    }
+
+    /**
+     * The block must already be unlinked from the deque and all its elements nulled out.
+     */
+    private void releaseBlock(Node<E> node) {
+        node.prev = null;
+        node.newest = Long.MIN_VALUE;
+        if (spareBlockCount < maxSpareBlocks) {
+            node.next = spareBlocks;
+            spareBlocks = node;
+            spareBlockCount++;
+        } else {
+            node.next = null;
+        }
+    }
+
+    private void throwIfEmpty() {
+        if (size == 0)
+            throw new NoSuchElementException();
+    }
+
+}
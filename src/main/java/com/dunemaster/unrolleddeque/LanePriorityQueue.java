@@ -0,0 +1,225 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Priority queue with a small fixed number of priority levels, FIFO within each level, for job scheduling.
+ * <p>
+ * Each level, or lane, is an {@link UnrolledLinkedListDeque}, and a bitmap of the non-empty lanes finds the highest
+ * priority lane with a single {@link Long#numberOfTrailingZeros}, so offer and poll are O(1) whatever the number
+ * of queued elements. Lane 0 has the highest priority, there can be up to {@link #MAX_LANES} lanes.
+ * <p>
+ * By default a lower lane is only polled when all higher lanes are empty. When created with weights, the queue drains
+ * the lanes in rounds instead: in each round lane {@code i} is polled up to {@code weights[i]} times, higher lanes first,
+ * so busy high priority lanes cannot starve the others.
+ * <p>
+ * The queue is not thread safe and null elements are not permitted.
+ */
+public class LanePriorityQueue<E> extends AbstractQueue<E> {
+
+    public static final int MAX_LANES = Long.SIZE;
+    private final UnrolledLinkedListDeque<E>[] lanes;
+    private final ToIntFunction<? super E> laneOf;
+    // null for strict priority
+    private final int[] weights;
+    private final int[] credits;
+    private final long allLanes;
+    private long nonEmptyLanes;
+    // lanes that have not used up their weight in the current round
+    private long lanesWithCredit;
+    private int size;
+
+    /**
+     * Creates a queue that always polls the highest priority non-empty lane.
+     *
+     * @param laneOf returns the lane of an element, from 0 (highest priority) to {@code lanes - 1}
+     */
+    public LanePriorityQueue(int lanes, ToIntFunction<? super E> laneOf) {
+        this(lanes, laneOf, null);
+    }
+
+    /**
+     * Creates a queue that drains the lanes in weighted rounds, there is one lane per weight.
+     *
+     * @param weights how many elements each lane gives per round, must be positive
+     */
+    public LanePriorityQueue(int[] weights, ToIntFunction<? super E> laneOf) {
+        this(weights.length, laneOf, weights.clone());
+        for (int weight : this.weights) {
+            if (weight <= 0) throw new IllegalArgumentException("weights must be positive");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private LanePriorityQueue(int lanes, ToIntFunction<? super E> laneOf, int[] weights) {
+        if (lanes <= 0 || lanes > MAX_LANES) throw new IllegalArgumentException("lanes must be between 1 and " + MAX_LANES);
+        this.laneOf = Objects.requireNonNull(laneOf, "laneOf");
+        this.lanes = new UnrolledLinkedListDeque[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new UnrolledLinkedListDeque<>();
+        }
+        this.weights = weights;
+        this.credits = weights == null ? null : weights.clone();
+        allLanes = lanes == MAX_LANES ? -1L : (1L << lanes) - 1;
+        lanesWithCredit = allLanes;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return offer(laneOf.applyAsInt(e), e);
+    }
+
+    /**
+     * Adds the element to the given lane, ignoring {@code laneOf}.
+     */
+    public boolean offer(int lane, E e) {
+        if (e == null) throw new NullPointerException();
+        checkLane(lane);
+        lanes[lane].addLast(e);
+        nonEmptyLanes |= 1L << lane;
+        size++;
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        if (size == 0) {
+            return null;
+        }
+        int lane = nextLane();
+        if (weights != null && --credits[lane] == 0) {
+            lanesWithCredit &= ~(1L << lane);
+        }
+        return pollLane(lane);
+    }
+
+    @Override
+    public E peek() {
+        if (size == 0) {
+            return null;
+        }
+        long candidates = weights == null ? nonEmptyLanes : nonEmptyLanes & lanesWithCredit;
+        if (candidates == 0) {
+            // poll would start a new round, which gives every lane credit again
+            candidates = nonEmptyLanes;
+        }
+        return lanes[Long.numberOfTrailingZeros(candidates)].peekFirst();
+    }
+
+    private int nextLane() {
+        if (weights == null) {
+            return Long.numberOfTrailingZeros(nonEmptyLanes);
+        }
+        long candidates = nonEmptyLanes & lanesWithCredit;
+        if (candidates == 0) {
+            // every non-empty lane has used up its weight, start a new round
+            System.arraycopy(weights, 0, credits, 0, weights.length);
+            lanesWithCredit = allLanes;
+            candidates = nonEmptyLanes;
+        }
+        return Long.numberOfTrailingZeros(candidates);
+    }
+
+    /**
+     * Removes the first element of the given lane, regardless of priority and weights.
+     *
+     * @return the element, or null if the lane is empty
+     */
+    public E pollLane(int lane) {
+        checkLane(lane);
+        UnrolledLinkedListDeque<E> deque = lanes[lane];
+        E element = deque.pollFirst();
+        if (element != null) {
+            size--;
+            if (deque.isEmpty()) {
+                nonEmptyLanes &= ~(1L << lane);
+            }
+        }
+        return element;
+    }
+
+    public int laneSize(int lane) {
+        checkLane(lane);
+        return lanes[lane].size();
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    private void checkLane(int lane) {
+        if (lane < 0 || lane >= lanes.length)
+            throw new IndexOutOfBoundsException("lane " + lane + ", lane count " + lanes.length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (UnrolledLinkedListDeque<E> lane : lanes) {
+            lane.clear();
+        }
+        nonEmptyLanes = 0;
+        size = 0;
+        if (weights != null) {
+            System.arraycopy(weights, 0, credits, 0, weights.length);
+        }
+        lanesWithCredit = allLanes;
+    }
+
+    /**
+     * Iterates over the lanes in priority order, each one from its head, which is the order strict priority polling
+     * would return the elements in.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int lane;
+            private Iterator<E> current = lanes[0].iterator();
+            private Iterator<E> lastReturned;
+            private int lastReturnedLane;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (lane + 1 == lanes.length) {
+                        return false;
+                    }
+                    current = lanes[++lane].iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lastReturned = current;
+                lastReturnedLane = lane;
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                lastReturned.remove();
+                lastReturned = null;
+                size--;
+                if (lanes[lastReturnedLane].isEmpty()) {
+                    nonEmptyLanes &= ~(1L << lastReturnedLane);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,357 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Unrolled deque of {@code long} values, with the same layout and semantics as {@link UnrolledLinkedListDeque}
+ * but storing the values in {@code long[]} blocks without boxing.
+ * <p>
+ * Poll and peek methods come in two flavours: one returning an {@link OptionalLong} and one returning
+ * a caller supplied value when the deque is empty, which does not allocate.
+ * <p>
+ * The class is specialized by hand rather than generated from a template, {@link IntUnrolledDeque}
+ * and {@link DoubleUnrolledDeque} are the same code for their value types, so fixes apply to all three.
+ */
+public class LongUnrolledDeque {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private static final int DEFAULT_MAX_SPARE_BLOCKS = 16;
+    private static final Node PLACEHOLDER = new Node(0);
+    private final int blockSize;
+    private final int center;
+    private final int maxSpareBlocks;
+    private Node spareBlocks;
+    private int spareBlockCount;
+    private Node head;
+    private Node tail;
+    private int size;
+    private int indexInHeadBlock;
+    private int indexInTailBlock;
+
+    private static final class Node {
+
+        private final long[] elements;
+        private Node next;
+        private Node prev;
+
+        Node(int blockSize) {
+            elements = new long[blockSize];
+        }
+
+    }
+
+    public LongUnrolledDeque() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public LongUnrolledDeque(int blockSize) {
+        this(blockSize, DEFAULT_MAX_SPARE_BLOCKS);
+    }
+
+    public LongUnrolledDeque(int blockSize, int maxSpareBlocks) {
+        this.blockSize = blockSize;
+        this.center = blockSize / 2 - 1;
+        this.maxSpareBlocks = maxSpareBlocks;
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        if (blockSize % 2 != 0) throw new IllegalArgumentException("blockSize must be even");
+        if (maxSpareBlocks < 0) throw new IllegalArgumentException("maxSpareBlocks must not be negative");
+        head = PLACEHOLDER;
+        setToClearState();
+    }
+
+    private void setToClearState() {
+        tail = head;
+        size = 0;
+        indexInHeadBlock = center + 1;
+        indexInTailBlock = center;
+    }
+
+    public void addFirst(long e) {
+        indexInHeadBlock--;
+        if (head == PLACEHOLDER) {
+            head = allocateBlock();
+            tail = head;
+        } else if (indexInHeadBlock < 0) {
+            Node newNode = allocateBlock();
+            newNode.next = head;
+            head.prev = newNode;
+            head = newNode;
+            indexInHeadBlock = blockSize - 1;
+        }
+        head.elements[indexInHeadBlock] = e;
+        size++;
+    }
+
+    public void addLast(long e) {
+        indexInTailBlock++;
+        if (head == PLACEHOLDER) {
+            head = allocateBlock();
+            tail = head;
+        } else if (indexInTailBlock == blockSize) {
+            Node newNode = allocateBlock();
+            tail.next = newNode;
+            newNode.prev = tail;
+            tail = newNode;
+            indexInTailBlock = 0;
+        }
+        tail.elements[indexInTailBlock] = e;
+        size++;
+    }
+
+    public void push(long e) {
+        addFirst(e);
+    }
+
+    public long removeFirst() {
+        throwIfEmpty();
+        return unlinkFirst();
+    }
+
+    public long removeLast() {
+        throwIfEmpty();
+        return unlinkLast();
+    }
+
+    public long pop() {
+        return removeFirst();
+    }
+
+    /**
+     * @return the first value, or {@code emptyValue} if the deque is empty
+     */
+    public long pollFirst(long emptyValue) {
+        return size == 0 ? emptyValue : unlinkFirst();
+    }
+
+    /**
+     * @return the last value, or {@code emptyValue} if the deque is empty
+     */
+    public long pollLast(long emptyValue) {
+        return size == 0 ? emptyValue : unlinkLast();
+    }
+
+    public OptionalLong pollFirst() {
+        return size == 0 ? OptionalLong.empty() : OptionalLong.of(unlinkFirst());
+    }
+
+    public OptionalLong pollLast() {
+        return size == 0 ? OptionalLong.empty() : OptionalLong.of(unlinkLast());
+    }
+
+    public long getFirst() {
+        throwIfEmpty();
+        return head.elements[indexInHeadBlock];
+    }
+
+    public long getLast() {
+        throwIfEmpty();
+        return tail.elements[indexInTailBlock];
+    }
+
+    public long peekFirst(long emptyValue) {
+        return size == 0 ? emptyValue : head.elements[indexInHeadBlock];
+    }
+
+    public long peekLast(long emptyValue) {
+        return size == 0 ? emptyValue : tail.elements[indexInTailBlock];
+    }
+
+    public OptionalLong peekFirst() {
+        return size == 0 ? OptionalLong.empty() : OptionalLong.of(head.elements[indexInHeadBlock]);
+    }
+
+    public OptionalLong peekLast() {
+        return size == 0 ? OptionalLong.empty() : OptionalLong.of(tail.elements[indexInTailBlock]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = PLACEHOLDER;
+        setToClearState();
+    }
+
+    public boolean contains(long value) {
+        PrimitiveIterator.OfLong iterator = iterator();
+        while (iterator.hasNext()) {
+            if (iterator.nextLong() == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void forEach(LongConsumer action) {
+        Node block = head;
+        int index = indexInHeadBlock;
+        int remaining = size;
+        while (remaining > 0) {
+            int end = Math.min(blockSize, index + remaining);
+            long[] elements = block.elements;
+            for (int i = index; i < end; i++) {
+                action.accept(elements[i]);
+            }
+            remaining -= end - index;
+            block = block.next;
+            index = 0;
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size];
+        Node block = head;
+        int index = indexInHeadBlock;
+        int copied = 0;
+        while (copied < size) {
+            int run = Math.min(blockSize - index, size - copied);
+            System.arraycopy(block.elements, index, result, copied, run);
+            copied += run;
+            block = block.next;
+            index = 0;
+        }
+        return result;
+    }
+
+    public LongStream stream() {
+        Spliterator.OfLong spliterator = Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.SIZED);
+        return StreamSupport.longStream(spliterator, false);
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private Node currentBlock = head;
+            private int indexInCurrentBlock = indexInHeadBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock++;
+                remaining--;
+                if (indexInCurrentBlock == blockSize && remaining > 0) {
+                    currentBlock = currentBlock.next;
+                    indexInCurrentBlock = 0;
+                }
+                return element;
+            }
+        };
+    }
+
+    public PrimitiveIterator.OfLong descendingIterator() {
+        return new PrimitiveIterator.OfLong() {
+            private Node currentBlock = tail;
+            private int indexInCurrentBlock = indexInTailBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long element = currentBlock.elements[indexInCurrentBlock];
+                indexInCurrentBlock--;
+                remaining--;
+                if (indexInCurrentBlock < 0 && remaining > 0) {
+                    currentBlock = currentBlock.prev;
+                    indexInCurrentBlock = blockSize - 1;
+                }
+                return element;
+            }
+        };
+    }
+
+    private Node allocateBlock() {
+        Node node = spareBlocks;
+        if (node == null) {
+            return new Node(blockSize);
+        }
+        spareBlocks = node.next;
+        node.next = null;
+        spareBlockCount--;
+        return node;
+    }
+
+    private void releaseBlock(Node node) {
+        node.prev = null;
+        if (spareBlockCount < maxSpareBlocks) {
+            node.next = spareBlocks;
+            spareBlocks = node;
+            spareBlockCount++;
+        } else {
+            node.next = null;
+        }
+    }
+
+    // primitive values hold no references, so unlike UnrolledLinkedListDeque the slots are not cleared
+    private long unlinkFirst() {
+        long element = head.elements[indexInHeadBlock];
+        indexInHeadBlock++;
+        if (indexInHeadBlock == blockSize) {
+            if (head != tail) {
+                Node removed = head;
+                head = head.next;
+                head.prev = null;
+                releaseBlock(removed);
+            }
+            indexInHeadBlock = 0;
+        }
+        size--;
+        if (size == 0) {
+            setToClearState();
+        }
+        return element;
+    }
+
+    private long unlinkLast() {
+        long element = tail.elements[indexInTailBlock];
+        indexInTailBlock--;
+        size--;
+        if (indexInTailBlock < 0) {
+            if (head == tail) {
+                if (size == 0) {
+                    setToClearState();
+                }
+            } else {
+                Node removed = tail;
+                tail = tail.prev;
+                tail.next = null;
+                releaseBlock(removed);
+                indexInTailBlock = blockSize - 1;
+            }
+        }
+        return element;
+    }
+
+    private void throwIfEmpty() {
+        if (size == 0)
+            throw new NoSuchElementException();
+    }
+
+}
@@ -0,0 +1,310 @@
+package com.dunemaster.unrolleddeque;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Deque of binary records stored in direct memory blocks taken from a {@link DirectBlockPool}.
+ * <p>
+ * The blocks are linked like the nodes of {@link UnrolledLinkedListDeque}, the head block fills towards its start
+ * and the tail block towards its end. Records are copied in from and out to caller supplied buffers or arrays,
+ * so adding and removing records creates no objects, and the only heap objects are one small node per block.
+ * Released blocks go back to the pool.
+ * <p>
+ * Records either all have the same size given at construction time, or are variable sized, in which case each record
+ * is framed by its length on both sides so that it can be read from either end. A record never spans blocks.
+ * <p>
+ * The deque is not thread safe. {@link #close()} returns all blocks to the pool.
+ */
+public class OffHeapRecordDeque implements AutoCloseable {
+
+    public static final int VARIABLE_RECORD_SIZE = 0;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private final DirectBlockPool pool;
+    private final int blockBytes;
+    private final int recordSize;
+    private final int framingBytes;
+    private Node head;
+    private Node tail;
+    private int size;
+    private long bytes;
+
+    private static final class Node {
+
+        private final ByteBuffer buffer;
+        // live records occupy [start, end)
+        private int start;
+        private int end;
+        private Node next;
+        private Node prev;
+
+        Node(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.start = position;
+            this.end = position;
+        }
+
+    }
+
+    /**
+     * @param recordSize size of every record in bytes, or {@link #VARIABLE_RECORD_SIZE} for length framed records
+     */
+    public OffHeapRecordDeque(DirectBlockPool pool, int recordSize) {
+        if (recordSize < 0) throw new IllegalArgumentException("recordSize must not be negative");
+        this.pool = pool;
+        this.blockBytes = pool.blockBytes();
+        this.recordSize = recordSize;
+        this.framingBytes = recordSize == VARIABLE_RECORD_SIZE ? 2 * LENGTH_BYTES : 0;
+        if (recordSize > blockBytes) throw new IllegalArgumentException("recordSize exceeds the block size");
+    }
+
+    public OffHeapRecordDeque(int blockBytes, int recordSize) {
+        this(new DirectBlockPool(blockBytes, 16), recordSize);
+    }
+
+    public void addFirst(ByteBuffer src) {
+        int length = src.remaining();
+        int offset = reserveFirst(length);
+        writeFraming(head, offset, length);
+        write(head.buffer, offset + framingBytes / 2, src);
+    }
+
+    public void addFirst(byte[] src, int srcOffset, int length) {
+        int offset = reserveFirst(length);
+        writeFraming(head, offset, length);
+        write(head.buffer, offset + framingBytes / 2, src, srcOffset, length);
+    }
+
+    public void addLast(ByteBuffer src) {
+        int length = src.remaining();
+        int offset = reserveLast(length);
+        writeFraming(tail, offset, length);
+        write(tail.buffer, offset + framingBytes / 2, src);
+    }
+
+    public void addLast(byte[] src, int srcOffset, int length) {
+        int offset = reserveLast(length);
+        writeFraming(tail, offset, length);
+        write(tail.buffer, offset + framingBytes / 2, src, srcOffset, length);
+    }
+
+    /**
+     * Removes the first record and copies it into {@code dst}.
+     *
+     * @return the record length, or -1 if the deque is empty
+     * @throws BufferOverflowException if the record does not fit into {@code dst}, the record is then not removed
+     */
+    public int pollFirst(ByteBuffer dst) {
+        int length = peekFirst(dst);
+        if (length >= 0) {
+            unlinkFirst(length);
+        }
+        return length;
+    }
+
+    /**
+     * @see #pollFirst(ByteBuffer)
+     */
+    public int pollLast(ByteBuffer dst) {
+        int length = peekLast(dst);
+        if (length >= 0) {
+            unlinkLast(length);
+        }
+        return length;
+    }
+
+    /**
+     * Copies the first record into {@code dst} without removing it.
+     *
+     * @return the record length, or -1 if the deque is empty
+     */
+    public int peekFirst(ByteBuffer dst) {
+        if (size == 0) {
+            return -1;
+        }
+        int length = firstRecordLength();
+        read(head.buffer, head.start + framingBytes / 2, length, dst);
+        return length;
+    }
+
+    public int peekLast(ByteBuffer dst) {
+        if (size == 0) {
+            return -1;
+        }
+        int length = lastRecordLength();
+        read(tail.buffer, tail.end - framingBytes / 2 - length, length, dst);
+        return length;
+    }
+
+    /**
+     * @return the length of the first record, or -1 if the deque is empty
+     */
+    public int firstRecordLength() {
+        if (size == 0) {
+            return -1;
+        }
+        return recordSize == VARIABLE_RECORD_SIZE ? head.buffer.getInt(head.start) : recordSize;
+    }
+
+    public int lastRecordLength() {
+        if (size == 0) {
+            return -1;
+        }
+        return recordSize == VARIABLE_RECORD_SIZE ? tail.buffer.getInt(tail.end - LENGTH_BYTES) : recordSize;
+    }
+
+    /**
+     * Drops the first record without copying it.
+     */
+    public void removeFirst() {
+        if (size == 0) throw new NoSuchElementException();
+        unlinkFirst(firstRecordLength());
+    }
+
+    public void removeLast() {
+        if (size == 0) throw new NoSuchElementException();
+        unlinkLast(lastRecordLength());
+    }
+
+    /**
+     * @return the number of records
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of payload bytes held, not counting framing and unused block space
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    public void clear() {
+        for (Node node = head; node != null; node = node.next) {
+            pool.release(node.buffer);
+        }
+        head = null;
+        tail = null;
+        size = 0;
+        bytes = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private void checkLength(int length) {
+        if (recordSize != VARIABLE_RECORD_SIZE && length != recordSize) {
+            throw new IllegalArgumentException("record length " + length + " differs from recordSize " + recordSize);
+        }
+        if (length + framingBytes > blockBytes) {
+            throw new IllegalArgumentException("record of " + length + " bytes does not fit into a block");
+        }
+    }
+
+    // returns the offset of the reserved record including its framing
+    private int reserveFirst(int length) {
+        checkLength(length);
+        int total = length + framingBytes;
+        if (size == 0) {
+            // an empty deque starts in the middle of a block, so that both ends have room to grow
+            resetToSingleBlock(Math.max(blockBytes / 2, total));
+        } else if (head.start < total) {
+            Node node = new Node(pool.acquire(), blockBytes);
+            node.next = head;
+            head.prev = node;
+            head = node;
+        }
+        head.start -= total;
+        size++;
+        bytes += length;
+        return head.start;
+    }
+
+    private int reserveLast(int length) {
+        checkLength(length);
+        int total = length + framingBytes;
+        if (size == 0) {
+            resetToSingleBlock(Math.min(blockBytes / 2, blockBytes - total));
+        } else if (blockBytes - tail.end < total) {
+            Node node = new Node(pool.acquire(), 0);
+            tail.next = node;
+            node.prev = tail;
+            tail = node;
+        }
+        int offset = tail.end;
+        tail.end += total;
+        size++;
+        bytes += length;
+        return offset;
+    }
+
+    private void resetToSingleBlock(int position) {
+        if (head == null) {
+            head = tail = new Node(pool.acquire(), position);
+        } else {
+            head.start = head.end = position;
+        }
+    }
+
+    private void writeFraming(Node node, int offset, int length) {
+        if (recordSize == VARIABLE_RECORD_SIZE) {
+            node.buffer.putInt(offset, length);
+            node.buffer.putInt(offset + LENGTH_BYTES + length, length);
+        }
+    }
+
+    private static void write(ByteBuffer block, int offset, ByteBuffer src) {
+        block.position(offset);
+        block.put(src);
+    }
+
+    private static void write(ByteBuffer block, int offset, byte[] src, int srcOffset, int length) {
+        block.position(offset);
+        block.put(src, srcOffset, length);
+    }
+
+    private static void read(ByteBuffer block, int offset, int length, ByteBuffer dst) {
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        block.limit(offset + length);
+        block.position(offset);
+        dst.put(block);
+        // absolute accessors check against the limit
+        block.limit(block.capacity());
+    }
+
+    private void unlinkFirst(int length) {
+        head.start += length + framingBytes;
+        size--;
+        bytes -= length;
+        // the last block is kept, so that a deque oscillating around empty does not go to the pool
+        if (head.start == head.end && head != tail) {
+            Node removed = head;
+            head = head.next;
+            head.prev = null;
+            pool.release(removed.buffer);
+        }
+    }
+
+    private void unlinkLast(int length) {
+        tail.end -= length + framingBytes;
+        size--;
+        bytes -= length;
+        if (tail.start == tail.end && head != tail) {
+            Node removed = tail;
+            tail = tail.prev;
+            tail.next = null;
+            pool.release(removed.buffer);
+        }
+    }
+
+}
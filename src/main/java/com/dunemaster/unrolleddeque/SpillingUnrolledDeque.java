@@ -0,0 +1,604 @@
+package com.dunemaster.unrolleddeque;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Unrolled deque that keeps at most {@code maxInMemoryBlocks} blocks on the heap and spills the others
+ * to a memory-mapped file.
+ * <p>
+ * Only the ends of a deque are hot, so the head and tail blocks always stay in memory. When a new block at one end
+ * takes the deque over its budget, the in-memory block farthest from both ends is serialized with the
+ * {@link ElementCodec} and written to the spill file, so the spilled blocks form a single run in the middle
+ * of the deque with the in-memory blocks split between the two ends. A spilled block is read back when it becomes
+ * the head or the tail again.
+ * <p>
+ * The spill file is mapped in chunks. A chunk whose blocks have all been read back is reused for the next spills,
+ * free chunks at the end of the file are unmapped and the file is truncated, so the file does not grow beyond what
+ * the spilled blocks need plus partly used chunks.
+ * <p>
+ * The spill file is created in {@code spillDirectory} on the first spill and deleted by {@link #close()}.
+ * Iteration decodes spilled blocks on the fly without bringing them back into memory.
+ * <p>
+ * The deque is not thread safe, null elements are not permitted and removal from the middle is not supported.
+ */
+public class SpillingUnrolledDeque<E> extends AbstractCollection<E> implements Deque<E>, Closeable {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private static final int DEFAULT_CHUNK_BYTES = 64 << 20;
+    private static final int INITIAL_SCRATCH_BYTES = 4096;
+    private final int blockSize;
+    private final int center;
+    private final int maxInMemoryBlocks;
+    private final ElementCodec<E> codec;
+    private final Path spillDirectory;
+    private final int chunkBytes;
+    private Node<E> head;
+    private Node<E> tail;
+    private int size;
+    private int indexInHeadBlock;
+    private int indexInTailBlock;
+    private int inMemoryBlocks;
+    private int spilledBlocks;
+    // while blocks are spilled, the ends of the spilled run and the number of in-memory blocks on each side of it
+    private Node<E> firstSpilled;
+    private Node<E> lastSpilled;
+    private int headRunBlocks;
+    private int tailRunBlocks;
+    // spill file, mapped in chunks since a single mapping is limited to 2GB
+    private Path spillFile;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private int writeChunk;
+    private int writeOffset;
+    // spilled blocks per chunk, a chunk other than the write chunk is free when it has none
+    private int[] liveBlocks = new int[1];
+    private final BitSet freeChunks = new BitSet();
+    private ByteBuffer scratch = ByteBuffer.allocate(INITIAL_SCRATCH_BYTES);
+
+    private static final class Node<E> {
+
+        // null while the block is spilled
+        private E[] elements;
+        private int spillChunk;
+        private int spillOffset;
+        private int spillLength;
+        private Node<E> next;
+        private Node<E> prev;
+
+        @SuppressWarnings("unchecked")
+        Node(int blockSize) {
+            elements = (E[]) new Object[blockSize];
+        }
+
+    }
+
+    public SpillingUnrolledDeque(int maxInMemoryBlocks, ElementCodec<E> codec, Path spillDirectory) {
+        this(DEFAULT_BLOCK_SIZE, maxInMemoryBlocks, codec, spillDirectory, DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param maxInMemoryBlocks blocks kept on the heap, including the head and tail blocks, at least 2
+     * @param chunkBytes        size of each mapping of the spill file, an encoded block must fit into one chunk
+     */
+    public SpillingUnrolledDeque(int blockSize, int maxInMemoryBlocks, ElementCodec<E> codec, Path spillDirectory,
+                                 int chunkBytes) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        if (blockSize % 2 != 0) throw new IllegalArgumentException("blockSize must be even");
+        if (maxInMemoryBlocks < 2) throw new IllegalArgumentException("maxInMemoryBlocks must be at least 2");
+        if (chunkBytes <= 0) throw new IllegalArgumentException("chunkBytes must be positive");
+        this.blockSize = blockSize;
+        this.center = blockSize / 2 - 1;
+        this.maxInMemoryBlocks = maxInMemoryBlocks;
+        this.codec = codec;
+        this.spillDirectory = spillDirectory;
+        this.chunkBytes = chunkBytes;
+        setToClearState();
+    }
+
+    private void setToClearState() {
+        head = null;
+        tail = null;
+        size = 0;
+        indexInHeadBlock = center + 1;
+        indexInTailBlock = center;
+        inMemoryBlocks = 0;
+        spilledBlocks = 0;
+        firstSpilled = null;
+        lastSpilled = null;
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (e == null) throw new NullPointerException();
+        indexInHeadBlock--;
+        if (head == null) {
+            head = tail = newNode();
+        } else if (indexInHeadBlock < 0) {
+            Node<E> newNode = newNode();
+            newNode.next = head;
+            head.prev = newNode;
+            head = newNode;
+            indexInHeadBlock = blockSize - 1;
+            if (spilledBlocks > 0) {
+                headRunBlocks++;
+            }
+            if (inMemoryBlocks > maxInMemoryBlocks) {
+                spillInterior();
+            }
+        }
+        head.elements[indexInHeadBlock] = e;
+        size++;
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (e == null) throw new NullPointerException();
+        indexInTailBlock++;
+        if (head == null) {
+            head = tail = newNode();
+        } else if (indexInTailBlock == blockSize) {
+            Node<E> newNode = newNode();
+            tail.next = newNode;
+            newNode.prev = tail;
+            tail = newNode;
+            indexInTailBlock = 0;
+            if (spilledBlocks > 0) {
+                tailRunBlocks++;
+            }
+            if (inMemoryBlocks > maxInMemoryBlocks) {
+                spillInterior();
+            }
+        }
+        tail.elements[indexInTailBlock] = e;
+        size++;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        throwIfEmpty();
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        throwIfEmpty();
+        return pollLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        if (size == 0) {
+            return null;
+        }
+        E element = head.elements[indexInHeadBlock];
+        head.elements[indexInHeadBlock] = null; // releasing memory!
+        indexInHeadBlock++;
+        size--;
+        if (size == 0) {
+            clear();
+        } else if (indexInHeadBlock == blockSize) {
+            head = head.next;
+            head.prev = null;
+            inMemoryBlocks--;
+            if (spilledBlocks > 0 && --headRunBlocks == 0) {
+                firstSpilled = firstSpilled.next;
+                headRunBlocks = 1;
+                pageIn(head);
+            }
+            indexInHeadBlock = 0;
+        }
+        return element;
+    }
+
+    @Override
+    public E pollLast() {
+        if (size == 0) {
+            return null;
+        }
+        E element = tail.elements[indexInTailBlock];
+        tail.elements[indexInTailBlock] = null; // releasing memory!
+        indexInTailBlock--;
+        size--;
+        if (size == 0) {
+            clear();
+        } else if (indexInTailBlock < 0) {
+            tail = tail.prev;
+            tail.next = null;
+            inMemoryBlocks--;
+            if (spilledBlocks > 0 && --tailRunBlocks == 0) {
+                lastSpilled = lastSpilled.prev;
+                tailRunBlocks = 1;
+                pageIn(tail);
+            }
+            indexInTailBlock = blockSize - 1;
+        }
+        return element;
+    }
+
+    @Override
+    public E getFirst() {
+        throwIfEmpty();
+        return head.elements[indexInHeadBlock];
+    }
+
+    @Override
+    public E getLast() {
+        throwIfEmpty();
+        return tail.elements[indexInTailBlock];
+    }
+
+    @Override
+    public E peekFirst() {
+        return size == 0 ? null : head.elements[indexInHeadBlock];
+    }
+
+    @Override
+    public E peekLast() {
+        return size == 0 ? null : tail.elements[indexInTailBlock];
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean add(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return offerLast(e);
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int inMemoryBlocks() {
+        return inMemoryBlocks;
+    }
+
+    public int spilledBlocks() {
+        return spilledBlocks;
+    }
+
+    @Override
+    public void clear() {
+        if (spilledBlocks > 0) {
+            resetSpillFile();
+        }
+        setToClearState();
+    }
+
+    /**
+     * Empties the deque and deletes the spill file.
+     */
+    @Override
+    public void close() throws IOException {
+        clear();
+        chunks.clear();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            Files.deleteIfExists(spillFile);
+            spillFile = null;
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Node<E> currentBlock = head;
+            private E[] currentElements = currentBlock == null ? null : elementsOf(currentBlock);
+            private int indexInCurrentBlock = indexInHeadBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = currentElements[indexInCurrentBlock];
+                indexInCurrentBlock++;
+                remaining--;
+                if (indexInCurrentBlock == blockSize && remaining > 0) {
+                    currentBlock = currentBlock.next;
+                    currentElements = elementsOf(currentBlock);
+                    indexInCurrentBlock = 0;
+                }
+                return element;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return new Iterator<E>() {
+            private Node<E> currentBlock = tail;
+            private E[] currentElements = currentBlock == null ? null : elementsOf(currentBlock);
+            private int indexInCurrentBlock = indexInTailBlock;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                E element = currentElements[indexInCurrentBlock];
+                indexInCurrentBlock--;
+                remaining--;
+                if (indexInCurrentBlock < 0 && remaining > 0) {
+                    currentBlock = currentBlock.prev;
+                    currentElements = elementsOf(currentBlock);
+                    indexInCurrentBlock = blockSize - 1;
+                }
+                return element;
+            }
+        };
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        throw new UnsupportedOperationException();
+    }
+
+    private Node<E> newNode() {
+        inMemoryBlocks++;
+        return new Node<>(blockSize);
+    }
+
+    private void throwIfEmpty() {
+        if (size == 0)
+            throw new NoSuchElementException();
+    }
+
+    private E[] elementsOf(Node<E> node) {
+        return node.elements != null ? node.elements : decode(node);
+    }
+
+    // spills the in-memory block farthest from both ends, there are at least 3 blocks in memory
+    private void spillInterior() {
+        Node<E> victim;
+        if (spilledBlocks == 0) {
+            int index = inMemoryBlocks / 2;
+            victim = head;
+            for (int i = 0; i < index; i++) {
+                victim = victim.next;
+            }
+            firstSpilled = lastSpilled = victim;
+            headRunBlocks = index;
+            tailRunBlocks = inMemoryBlocks - index - 1;
+        } else if (headRunBlocks >= tailRunBlocks) {
+            victim = firstSpilled.prev;
+            firstSpilled = victim;
+            headRunBlocks--;
+        } else {
+            victim = lastSpilled.next;
+            lastSpilled = victim;
+            tailRunBlocks--;
+        }
+        spill(victim);
+    }
+
+    // interior blocks are always full
+    private void spill(Node<E> node) {
+        ByteBuffer encoded = encode(node.elements);
+        int length = encoded.remaining();
+        if (length > chunkBytes) {
+            throw new IllegalStateException("encoded block of " + length + " bytes exceeds chunkBytes " + chunkBytes);
+        }
+        if (writeOffset + length > chunkBytes) {
+            int free = freeChunks.nextSetBit(0);
+            if (free >= 0) {
+                freeChunks.clear(free);
+                writeChunk = free;
+            } else {
+                writeChunk = chunks.size();
+            }
+            writeOffset = 0;
+        }
+        MappedByteBuffer chunk = chunk(writeChunk);
+        chunk.position(writeOffset);
+        chunk.put(encoded);
+        node.spillChunk = writeChunk;
+        node.spillOffset = writeOffset;
+        node.spillLength = length;
+        node.elements = null;
+        writeOffset += length;
+        if (writeChunk == liveBlocks.length) {
+            liveBlocks = Arrays.copyOf(liveBlocks, liveBlocks.length * 2);
+        }
+        liveBlocks[writeChunk]++;
+        inMemoryBlocks--;
+        spilledBlocks++;
+    }
+
+    private void pageIn(Node<E> node) {
+        node.elements = decode(node);
+        inMemoryBlocks++;
+        spilledBlocks--;
+        if (spilledBlocks == 0) {
+            resetSpillFile();
+        } else if (--liveBlocks[node.spillChunk] == 0) {
+            if (node.spillChunk == writeChunk) {
+                writeOffset = 0;
+            } else {
+                freeChunk(node.spillChunk);
+            }
+        }
+    }
+
+    private void freeChunk(int index) {
+        freeChunks.set(index);
+        int count = chunks.size();
+        // the write chunk is never free, so at least one chunk stays
+        while (freeChunks.get(count - 1)) {
+            freeChunks.clear(count - 1);
+            count--;
+        }
+        if (count < chunks.size()) {
+            chunks.subList(count, chunks.size()).clear();
+            truncate(count);
+        }
+    }
+
+    // nothing left in the file, start writing from the beginning again and keep the first chunk mapped
+    private void resetSpillFile() {
+        writeChunk = 0;
+        writeOffset = 0;
+        Arrays.fill(liveBlocks, 0);
+        freeChunks.clear();
+        if (chunks.size() > 1) {
+            chunks.subList(1, chunks.size()).clear();
+            truncate(1);
+        }
+    }
+
+    // the dropped mappings are unmapped when they are garbage collected
+    private void truncate(int chunkCount) {
+        try {
+            channel.truncate((long) chunkCount * chunkBytes);
+        } catch (IOException e) {
+            // some platforms refuse to truncate a file with live mappings, the chunks are still reused
+        }
+    }
+
+    private ByteBuffer encode(E[] elements) {
+        while (true) {
+            scratch.clear();
+            try {
+                for (E element : elements) {
+                    codec.encode(element, scratch);
+                }
+                scratch.flip();
+                return scratch;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E[] decode(Node<E> node) {
+        ByteBuffer source = chunk(node.spillChunk).duplicate();
+        source.limit(node.spillOffset + node.spillLength);
+        source.position(node.spillOffset);
+        E[] elements = (E[]) new Object[blockSize];
+        for (int i = 0; i < blockSize; i++) {
+            elements[i] = codec.decode(source);
+        }
+        return elements;
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        try {
+            if (channel == null) {
+                spillFile = Files.createTempFile(spillDirectory, "unrolled-deque-", ".spill");
+                spillFile.toFile().deleteOnExit();
+                channel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            while (chunks.size() <= index) {
+                long position = (long) chunks.size() * chunkBytes;
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, position, chunkBytes));
+            }
+            return chunks.get(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,577 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optionally bounded {@link BlockingDeque} backed by an {@link UnrolledLinkedListDeque}.
+ * <p>
+ * Both ends of the unrolled deque share the element count and, when it is small, the same block,
+ * so all operations are guarded by one {@link ReentrantLock} with separate conditions for waiting on an empty
+ * and on a full deque. {@code ReentrantLock} is used rather than {@code synchronized} so that waiting
+ * virtual threads do not pin their carrier threads.
+ * <p>
+ * {@link #drainTo(Collection, int)} moves whole block runs out of the deque under a single lock acquisition
+ * and hands them to the target collection after the lock is released. Until then the drained elements still count
+ * against the capacity, so that the ones the target rejects can always be put back.
+ * <p>
+ * The iterators work on a snapshot taken at the time of the call. Their {@code remove} removes the first occurrence
+ * of the last returned element from the deque, the last occurrence for the descending iterator.
+ * Null elements are not permitted.
+ */
+public class UnrolledBlockingDeque<E> extends AbstractQueue<E> implements BlockingDeque<E> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private final UnrolledLinkedListDeque<E> deque;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // elements drained but not yet handed to the target collection, guarded by lock
+    private int reserved;
+
+    public UnrolledBlockingDeque() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public UnrolledBlockingDeque(int capacity) {
+        this(capacity, DEFAULT_BLOCK_SIZE);
+    }
+
+    public UnrolledBlockingDeque(int capacity, int blockSize) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.deque = new UnrolledLinkedListDeque<>(blockSize);
+    }
+
+    // called with lock held
+    private boolean linkFirst(E e) {
+        if (deque.size() + reserved >= capacity) {
+            return false;
+        }
+        deque.addFirst(e);
+        notEmpty.signal();
+        return true;
+    }
+
+    private boolean linkLast(E e) {
+        if (deque.size() + reserved >= capacity) {
+            return false;
+        }
+        deque.addLast(e);
+        notEmpty.signal();
+        return true;
+    }
+
+    private E unlinkFirst() {
+        E e = deque.pollFirst();
+        if (e != null) {
+            notFull.signal();
+        }
+        return e;
+    }
+
+    private E unlinkLast() {
+        E e = deque.pollLast();
+        if (e != null) {
+            notFull.signal();
+        }
+        return e;
+    }
+
+    @Override
+    public void addFirst(E e) {
+        if (!offerFirst(e))
+            throw new IllegalStateException("Deque full");
+    }
+
+    @Override
+    public void addLast(E e) {
+        if (!offerLast(e))
+            throw new IllegalStateException("Deque full");
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        if (e == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            return linkFirst(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        if (e == null) throw new NullPointerException();
+        lock.lock();
+        try {
+            return linkLast(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putFirst(E e) throws InterruptedException {
+        if (e == null) throw new NullPointerException();
+        lock.lockInterruptibly();
+        try {
+            while (!linkFirst(e)) {
+                notFull.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putLast(E e) throws InterruptedException {
+        if (e == null) throw new NullPointerException();
+        lock.lockInterruptibly();
+        try {
+            while (!linkLast(e)) {
+                notFull.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offerFirst(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (e == null) throw new NullPointerException();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!linkFirst(e)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offerLast(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (e == null) throw new NullPointerException();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!linkLast(e)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E removeFirst() {
+        E e = pollFirst();
+        if (e == null) throw new NoSuchElementException();
+        return e;
+    }
+
+    @Override
+    public E removeLast() {
+        E e = pollLast();
+        if (e == null) throw new NoSuchElementException();
+        return e;
+    }
+
+    @Override
+    public E pollFirst() {
+        lock.lock();
+        try {
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E pollLast() {
+        lock.lock();
+        try {
+            return unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            E e;
+            while ((e = unlinkFirst()) == null) {
+                notEmpty.await();
+            }
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E takeLast() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            E e;
+            while ((e = unlinkLast()) == null) {
+                notEmpty.await();
+            }
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            E e;
+            while ((e = unlinkFirst()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            E e;
+            while ((e = unlinkLast()) == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E getFirst() {
+        E e = peekFirst();
+        if (e == null) throw new NoSuchElementException();
+        return e;
+    }
+
+    @Override
+    public E getLast() {
+        E e = peekLast();
+        if (e == null) throw new NoSuchElementException();
+        return e;
+    }
+
+    @Override
+    public E peekFirst() {
+        lock.lock();
+        try {
+            return deque.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peekLast() {
+        lock.lock();
+        try {
+            return deque.peekLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        lock.lock();
+        try {
+            boolean removed = deque.removeFirstOccurrence(o);
+            if (removed) {
+                notFull.signal();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        lock.lock();
+        try {
+            boolean removed = deque.removeLastOccurrence(o);
+            if (removed) {
+                notFull.signal();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean add(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        return offerLast(e);
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        putLast(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        return offerLast(e, timeout, unit);
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return takeFirst();
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return pollFirst(timeout, unit);
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(E e) {
+        addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return deque.contains(o);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return deque.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - deque.size() - reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            deque.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        if (c == null) throw new NullPointerException();
+        if (c == this) throw new IllegalArgumentException();
+        if (maxElements <= 0) {
+            return 0;
+        }
+        Object[] drained;
+        int count;
+        lock.lock();
+        try {
+            drained = new Object[Math.min(maxElements, deque.size())];
+            count = deque.drainFirst(drained, 0, drained.length);
+            reserved += count;
+        } finally {
+            lock.unlock();
+        }
+        if (count == 0) {
+            return 0;
+        }
+        int added = 0;
+        try {
+            for (; added < count; added++) {
+                @SuppressWarnings("unchecked")
+                E e = (E) drained[added];
+                c.add(e);
+            }
+        } finally {
+            lock.lock();
+            try {
+                reserved -= count;
+                if (added < count) {
+                    // the target rejected an element, put the rest back at the head in the original order,
+                    // the space is still reserved for them
+                    @SuppressWarnings("unchecked")
+                    E[] rest = (E[]) drained;
+                    deque.addAllFirst(rest, added, count - added);
+                    notEmpty.signalAll();
+                }
+                if (added > 0) {
+                    notFull.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Object[] toArray() {
+        lock.lock();
+        try {
+            return deque.toArray();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SnapshotIterator(toArray(), false);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        Object[] snapshot = toArray();
+        for (int i = 0, j = snapshot.length - 1; i < j; i++, j--) {
+            Object tmp = snapshot[i];
+            snapshot[i] = snapshot[j];
+            snapshot[j] = tmp;
+        }
+        return new SnapshotIterator(snapshot, true);
+    }
+
+    private final class SnapshotIterator implements Iterator<E> {
+
+        private final Object[] snapshot;
+        private final boolean descending;
+        private int index;
+        private Object lastReturned;
+
+        SnapshotIterator(Object[] snapshot, boolean descending) {
+            this.snapshot = snapshot;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < snapshot.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = snapshot[index];
+            snapshot[index++] = null;
+            return (E) lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (descending) {
+                removeLastOccurrence(lastReturned);
+            } else {
+                removeFirstOccurrence(lastReturned);
+            }
+            lastReturned = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.dunemaster.unrolleddeque;
+
+/**
+ * {@link UnrolledDequeListener} counting block events, for metrics exporters that poll from another thread.
+ * <p>
+ * Only the thread using the deque writes the counters, so plain volatile fields are enough.
+ */
+public class UnrolledDequeCounters implements UnrolledDequeListener {
+
+    private volatile long blocksAllocated;
+    private volatile long blocksReused;
+    private volatile long blocksReleased;
+    private volatile long blocksKept;
+    private volatile int highWaterMark;
+
+    @Override
+    public void blockAllocated(int blockLength, boolean reused) {
+        blocksAllocated = blocksAllocated + 1;
+        if (reused) {
+            blocksReused = blocksReused + 1;
+        }
+    }
+
+    @Override
+    public void blockReleased(int blockLength, boolean kept) {
+        blocksReleased = blocksReleased + 1;
+        if (kept) {
+            blocksKept = blocksKept + 1;
+        }
+    }
+
+    @Override
+    public void highWaterMarkRaised(int size) {
+        highWaterMark = size;
+    }
+
+    /**
+     * @return the number of blocks linked into the deque, including reused spare blocks
+     */
+    public long blocksAllocated() {
+        return blocksAllocated;
+    }
+
+    public long blocksReused() {
+        return blocksReused;
+    }
+
+    public long blocksReleased() {
+        return blocksReleased;
+    }
+
+    /**
+     * @return the number of released blocks kept as spare blocks
+     */
+    public long blocksKept() {
+        return blocksKept;
+    }
+
+    public int highWaterMark() {
+        return highWaterMark;
+    }
+
+}
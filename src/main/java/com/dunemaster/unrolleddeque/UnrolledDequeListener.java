@@ -0,0 +1,37 @@
+package com.dunemaster.unrolleddeque;
+
+/**
+ * Receives block level events of an {@link UnrolledLinkedListDeque}. The callbacks run on the thread
+ * using the deque, at most once per block, so they stay off the per-element fast path.
+ * <p>
+ * {@link #NO_OP} is the default listener of every deque.
+ */
+public interface UnrolledDequeListener {
+
+    UnrolledDequeListener NO_OP = new UnrolledDequeListener() {
+    };
+
+    /**
+     * @param blockLength number of slots of the block
+     * @param reused      whether the block came from the spare blocks rather than being newly allocated
+     */
+    default void blockAllocated(int blockLength, boolean reused) {
+    }
+
+    /**
+     * @param blockLength number of slots of the block
+     * @param kept        whether the block was kept as a spare block rather than left to the GC
+     */
+    default void blockReleased(int blockLength, boolean kept) {
+    }
+
+    /**
+     * Called when the deque needs a new block while holding more elements than ever before,
+     * so the high water mark is tracked at block granularity.
+     *
+     * @param size number of elements when the block was needed
+     */
+    default void highWaterMarkRaised(int size) {
+    }
+
+}
@@ -1,36 +1,116 @@
 package com.dunemaster.unrolleddeque;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
 import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
-public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements Deque<E> {
+public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements Deque<E>, Cloneable, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final int DEFAULT_BLOCK_SIZE = 128;
+    // same limit as MAXFREEBLOCKS in CPython's deque
+    private static final int DEFAULT_MAX_SPARE_BLOCKS = 16;
     private static final Node<?> PLACEHOLDER = new Node<>(0);
+    // shallow sizes on a 64-bit JVM with compressed references: a Node holds a header, four references and an int,
+    // an Object[] a header with the length and one reference per slot
+    private static final int NODE_BYTES = 32;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
     private final int blockSize;
     private final int center;
-    private Node<E> head;
-    private Node<E> tail;
-    private int size;
-    private int indexInHeadBlock;
-    private int indexInTailBlock;
+    // equal to blockSize unless the deque was created by adaptive()
+    private int maxBlockSize;
+    private final int maxSpareBlocks;
+    // Integer.MAX_VALUE unless the deque was created by evicting()
+    private int capacity = Integer.MAX_VALUE;
+    // only the settings above are serialized, the elements are written by writeObject
+    // released blocks kept for reuse, linked through Node.next
+    private transient Node<E> spareBlocks;
+    private transient int spareBlockCount;
+    private transient long spareSlots;
+    // blocks linked into the deque and the sum of their lengths
+    private transient int blockCount;
+    private transient long allocatedSlots;
+    private transient UnrolledDequeListener listener = UnrolledDequeListener.NO_OP;
+    private transient int highWaterMark;
+    private transient Consumer<? super E> onEviction;
+    private transient Node<E> head;
+    private transient Node<E> tail;
+    private transient int size;
+    private transient int indexInHeadBlock;
+    private transient int indexInTailBlock;
+    // incremented by snapshot(), blocks of an older epoch may be shared with a snapshot and are copied before writing
+    private transient int epoch;
+    // of the latest snapshot, cleared once no snapshot is reachable
+    private transient WeakReference<Generation<E>> generation;
 
     private static final class Node<E> {
 
-        private final E[] elements;
+        private E[] elements;
         private Node<E> next;
         private Node<E> prev;
+        // the epoch of the last write, see own()
+        private int epoch;
+        // the contents before the first write in that epoch, for snapshots taken earlier, held by their generations
+        private WeakReference<Frozen<E>> frozen;
 
         @SuppressWarnings("unchecked")
         Node(int blockSize) {
             elements = (E[]) new Object[blockSize];
         }
 
+        Node(E[] elements) {
+            this.elements = elements;
+        }
+
+    }
+
+    private static final class Frozen<E> {
+
+        private E[] elements;
+        private Node<E> next;
+        private Node<E> prev;
+        // the epoch of the write before the freeze, the contents are valid for snapshots taken since then
+        private final int since;
+
+        Frozen(E[] elements, Node<E> next, Node<E> prev, int since) {
+            this.elements = elements;
+            this.next = next;
+            this.prev = prev;
+            this.since = since;
+        }
+
+    }
+
+    /**
+     * Holds the blocks frozen while a snapshot is the latest one. A snapshot holds its generation, which holds
+     * the newer ones, so the frozen contents stay reachable while a snapshot that may read them is.
+     */
+    private static final class Generation<E> {
+
+        private final ArrayList<Frozen<E>> frozen = new ArrayList<>();
+        private Generation<E> newer;
+
     }
 
     public UnrolledLinkedListDeque() {
@@ -38,14 +118,87 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
     }
 
     public UnrolledLinkedListDeque(int blockSize) {
+        this(blockSize, DEFAULT_MAX_SPARE_BLOCKS);
+    }
+
+    /**
+     * @param blockSize      number of elements per block, must be positive and even
+     * @param maxSpareBlocks how many released blocks are kept for reuse instead of being left to the GC,
+     *                       so that a deque oscillating around a block boundary does not allocate. 0 disables the cache.
+     */
+    public UnrolledLinkedListDeque(int blockSize, int maxSpareBlocks) {
         this.blockSize = blockSize;
+        this.maxBlockSize = blockSize;
         this.center = blockSize / 2 - 1;
+        this.maxSpareBlocks = maxSpareBlocks;
         validateBlockSize();
+        if (maxSpareBlocks < 0) throw new IllegalArgumentException("maxSpareBlocks must not be negative");
         // do not allocate at construction time, probably the deque will stay empty
         head = (Node<E>) PLACEHOLDER;
         setToClearState();
     }
 
+    /**
+     * Allocates the blocks for {@code expectedSize} elements up front, the ones beyond the head block are kept as spare
+     * blocks until the deque grows into them, even if there are more than {@code maxSpareBlocks}.
+     */
+    public UnrolledLinkedListDeque(int blockSize, int maxSpareBlocks, int expectedSize) {
+        this(blockSize, maxSpareBlocks);
+        if (expectedSize < 0) throw new IllegalArgumentException("expectedSize must not be negative");
+        if (expectedSize > 0) {
+            head = new Node<>(blockSize);
+            blockCount = 1;
+            allocatedSlots = blockSize;
+            setToClearState();
+            // one more than expectedSize / blockSize, because the first elements go to the middle of the head block
+            int spares = (expectedSize + blockSize - 1) / blockSize;
+            for (int i = 0; i < spares; i++) {
+                Node<E> node = new Node<>(blockSize);
+                node.next = spareBlocks;
+                spareBlocks = node;
+            }
+            spareBlockCount = spares;
+            spareSlots = (long) spares * blockSize;
+        }
+    }
+
+    /**
+     * Creates a deque whose new blocks grow geometrically with its size, from {@code minBlockSize} up to
+     * {@code maxBlockSize} elements, and get smaller again when it drains. Small deques then waste little memory
+     * and large ones need few blocks. Blocks already in the deque keep their size.
+     *
+     * @param minBlockSize size of the first block, must be positive and even
+     */
+    public static <E> UnrolledLinkedListDeque<E> adaptive(int minBlockSize, int maxBlockSize) {
+        UnrolledLinkedListDeque<E> deque = new UnrolledLinkedListDeque<>(minBlockSize);
+        if (maxBlockSize < minBlockSize) throw new IllegalArgumentException("maxBlockSize must not be less than minBlockSize");
+        deque.maxBlockSize = maxBlockSize;
+        return deque;
+    }
+
+    /**
+     * Creates a deque holding at most {@code capacity} elements, for keeping the latest elements of a stream.
+     * Adding to a full deque evicts an element from the opposite end: {@code addLast} evicts the first element
+     * and {@code addFirst} the last one. A block emptied by eviction goes to the spare blocks and is reused for the
+     * next block at the other end, so a full deque does not allocate.
+     */
+    public static <E> UnrolledLinkedListDeque<E> evicting(int blockSize, int capacity) {
+        UnrolledLinkedListDeque<E> deque = new UnrolledLinkedListDeque<>(blockSize);
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        deque.capacity = capacity;
+        return deque;
+    }
+
+    /**
+     * Like {@link #evicting(int, int)}, passing each evicted element to {@code onEviction} after the new element
+     * has been added. The callback is not serialized.
+     */
+    public static <E> UnrolledLinkedListDeque<E> evicting(int blockSize, int capacity, Consumer<? super E> onEviction) {
+        UnrolledLinkedListDeque<E> deque = evicting(blockSize, capacity);
+        deque.onEviction = Objects.requireNonNull(onEviction, "onEviction");
+        return deque;
+    }
+
     private void validateBlockSize() {
         if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
         if (blockSize % 2 != 0) throw new IllegalArgumentException("blockSize must be even");
@@ -126,12 +279,36 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
 
     @Override
     public boolean removeFirstOccurrence(Object o) {
-        throw new UnsupportedOperationException();
+        Node<E> block = head;
+        int index = indexInHeadBlock;
+        for (int position = 0; position < size; position++) {
+            if (Objects.equals(o, block.elements[index])) {
+                delete(block, index, position);
+                return true;
+            }
+            if (++index == block.elements.length) {
+                block = block.next;
+                index = 0;
+            }
+        }
+        return false;
     }
 
     @Override
     public boolean removeLastOccurrence(Object o) {
-        throw new UnsupportedOperationException();
+        Node<E> block = tail;
+        int index = indexInTailBlock;
+        for (int position = size - 1; position >= 0; position--) {
+            if (Objects.equals(o, block.elements[index])) {
+                delete(block, index, position);
+                return true;
+            }
+            if (--index < 0 && position > 0) {
+                block = block.prev;
+                index = block.elements.length - 1;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -164,8 +341,17 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
         return tryGetFirst();
     }
 
+    /**
+     * Adds the elements at the tail in iteration order. The contents of random access lists such as {@code ArrayList}
+     * are copied into the blocks with {@link System#arraycopy}.
+     */
     @Override
     public boolean addAll(Collection<? extends E> elements) {
+        if (elements instanceof RandomAccess) {
+            Object[] source = elements.toArray();
+            addLastRun(source, 0, source.length);
+            return source.length > 0;
+        }
         boolean anyAdded = false;
         for (E element : elements) {
             boolean added = tryAddLast(element);
@@ -174,6 +360,162 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
         return anyAdded;
     }
 
+    /**
+     * Adds {@code length} elements of {@code source}, starting at {@code offset}, at the tail.
+     */
+    public void addAll(E[] source, int offset, int length) {
+        checkRange(source.length, offset, length);
+        addLastRun(source, offset, length);
+    }
+
+    /**
+     * Adds the elements at the head, so that afterwards the deque starts with them in iteration order.
+     * This is the reverse of calling {@link #addFirst} for each of them.
+     *
+     * @return true if the deque changed
+     */
+    public boolean addAllFirst(Collection<? extends E> elements) {
+        Object[] source = elements.toArray();
+        addFirstRun(source, 0, source.length);
+        return source.length > 0;
+    }
+
+    /**
+     * Adds {@code length} elements of {@code source}, starting at {@code offset}, at the head,
+     * so that afterwards the deque starts with them in array order.
+     */
+    public void addAllFirst(E[] source, int offset, int length) {
+        checkRange(source.length, offset, length);
+        addFirstRun(source, offset, length);
+    }
+
+    /**
+     * Removes up to {@code n} elements from the head and stores them in {@code dest} in the order they were in the deque.
+     *
+     * @return the number of elements removed
+     */
+    public int pollFirst(int n, E[] dest) {
+        checkRange(dest.length, 0, n);
+        return drainFirst(dest, 0, n);
+    }
+
+    /**
+     * Removes up to {@code n} elements from the tail and stores them in {@code dest} in the order
+     * that repeated {@link #pollLast()} calls would return them, the last element first.
+     *
+     * @return the number of elements removed
+     */
+    public int pollLast(int n, E[] dest) {
+        checkRange(dest.length, 0, n);
+        int count = drainLast(dest, 0, n);
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            E tmp = dest[i];
+            dest[i] = dest[j];
+            dest[j] = tmp;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the block holding the first elements, for consuming them in place without polling one at a time.
+     * The live elements are at {@link #firstSliceOffset()}, {@link #firstSliceLength()} of them, and are of type E.
+     * The array must not be modified and is only valid until the deque is next modified. After processing,
+     * {@link #consumeFirst(int)} removes the processed elements, and the next call returns the following block.
+     */
+    public Object[] firstSliceArray() {
+        return head.elements;
+    }
+
+    public int firstSliceOffset() {
+        return indexInHeadBlock;
+    }
+
+    /**
+     * @return the number of elements in the first block, 0 if the deque is empty
+     */
+    public int firstSliceLength() {
+        if (size == 0) {
+            return 0;
+        }
+        return head == tail ? indexInTailBlock - indexInHeadBlock + 1 : head.elements.length - indexInHeadBlock;
+    }
+
+    /**
+     * Removes the first {@code n} elements of the first slice in bulk.
+     *
+     * @param n at most {@link #firstSliceLength()}
+     */
+    public void consumeFirst(int n) {
+        if (n < 0 || n > firstSliceLength())
+            throw new IndexOutOfBoundsException("n " + n + ", slice length " + firstSliceLength());
+        if (n == 0) {
+            return;
+        }
+        Arrays.fill(head.elements, indexInHeadBlock, indexInHeadBlock + n, null); // releasing memory!
+        indexInHeadBlock += n;
+        size -= n;
+        if (size == 0) {
+            setToClearState();
+        } else if (indexInHeadBlock == head.elements.length) {
+            Node<E> removed = head;
+            head = head.next;
+            own(head);
+            head.prev = null;
+            releaseBlock(removed);
+            indexInHeadBlock = 0;
+        }
+    }
+
+    /**
+     * Like {@link #firstSliceArray()} for the block holding the last elements, for consuming them in LIFO order
+     * from the end of the slice.
+     */
+    public Object[] lastSliceArray() {
+        return tail.elements;
+    }
+
+    public int lastSliceOffset() {
+        return head == tail ? indexInHeadBlock : 0;
+    }
+
+    /**
+     * @return the number of elements in the last block, 0 if the deque is empty
+     */
+    public int lastSliceLength() {
+        return size == 0 ? 0 : indexInTailBlock - lastSliceOffset() + 1;
+    }
+
+    /**
+     * Removes the last {@code n} elements of the last slice in bulk.
+     *
+     * @param n at most {@link #lastSliceLength()}
+     */
+    public void consumeLast(int n) {
+        if (n < 0 || n > lastSliceLength())
+            throw new IndexOutOfBoundsException("n " + n + ", slice length " + lastSliceLength());
+        if (n == 0) {
+            return;
+        }
+        Arrays.fill(tail.elements, indexInTailBlock - n + 1, indexInTailBlock + 1, null); // releasing memory!
+        indexInTailBlock -= n;
+        size -= n;
+        if (size == 0) {
+            setToClearState();
+        } else if (indexInTailBlock < 0) {
+            Node<E> removed = tail;
+            tail = tail.prev;
+            own(tail);
+            tail.next = null;
+            releaseBlock(removed);
+            indexInTailBlock = tail.elements.length - 1;
+        }
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || length > arrayLength - offset)
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + arrayLength);
+    }
+
     @Override
     public void push(E e) {
         addFirst(e);
@@ -190,12 +532,66 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
         return size;
     }
 
+    /**
+     * Returns the element at {@code index}, counting from the head. Whole blocks are skipped from whichever end
+     * is closer, so the cost is O(size / blockSize).
+     */
+    public E get(int index) {
+        return access(index, null, false);
+    }
+
+    /**
+     * Replaces the element at {@code index}, counting from the head.
+     *
+     * @return the element previously at that position
+     */
+    public E set(int index, E element) {
+        return access(index, element, true);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    // blocks can differ in size, so they are skipped by their length rather than by dividing by blockSize
+    private E access(int index, E element, boolean replace) {
+        checkIndex(index);
+        Node<E> block;
+        int indexInBlock;
+        if (index < size / 2) {
+            block = head;
+            indexInBlock = indexInHeadBlock + index;
+            while (indexInBlock >= block.elements.length) {
+                indexInBlock -= block.elements.length;
+                block = block.next;
+            }
+        } else {
+            block = tail;
+            // counted from the end of the tail block's live range
+            int fromEnd = size - 1 - index + (tail.elements.length - 1 - indexInTailBlock);
+            while (fromEnd >= block.elements.length) {
+                fromEnd -= block.elements.length;
+                block = block.prev;
+            }
+            indexInBlock = block.elements.length - 1 - fromEnd;
+        }
+        E previous = block.elements[indexInBlock];
+        if (replace) {
+            own(block);
+            block.elements[indexInBlock] = element;
+        }
+        return previous;
+    }
+
     @Override
     public Iterator<E> iterator() {
         return new Iterator<E>() {
             private Node<E> currentBlock = head;
             private int indexInCurrentBlock = indexInHeadBlock;
             private int remaining = size;
+            private Node<E> lastReturnedBlock;
+            private int lastReturnedIndex = -1;
 
             @Override
             public boolean hasNext() {
@@ -208,14 +604,50 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
                     throw new NoSuchElementException();
                 }
                 E element = currentBlock.elements[indexInCurrentBlock];
+                lastReturnedBlock = currentBlock;
+                lastReturnedIndex = indexInCurrentBlock;
                 indexInCurrentBlock++;
                 remaining--;
-                if (indexInCurrentBlock == blockSize && remaining > 0) {
+                if (indexInCurrentBlock == currentBlock.elements.length && remaining > 0) {
                     currentBlock = currentBlock.next;
                     indexInCurrentBlock = 0;
                 }
                 return element;
             }
+
+            @Override
+            public void remove() {
+                if (lastReturnedIndex < 0) {
+                    throw new IllegalStateException();
+                }
+                if (!delete(lastReturnedBlock, lastReturnedIndex, size - remaining - 1)) {
+                    // the elements not yet returned moved one slot towards the head
+                    currentBlock = lastReturnedBlock;
+                    indexInCurrentBlock = lastReturnedIndex;
+                }
+                lastReturnedBlock = null;
+                lastReturnedIndex = -1;
+            }
+
+            @Override
+            public void forEachRemaining(Consumer<? super E> action) {
+                Objects.requireNonNull(action);
+                while (remaining > 0) {
+                    E[] elements = currentBlock.elements;
+                    int to = Math.min(elements.length, indexInCurrentBlock + remaining);
+                    for (int i = indexInCurrentBlock; i < to; i++) {
+                        action.accept(elements[i]);
+                    }
+                    lastReturnedBlock = currentBlock;
+                    lastReturnedIndex = to - 1;
+                    remaining -= to - indexInCurrentBlock;
+                    indexInCurrentBlock = to;
+                    if (to == elements.length && remaining > 0) {
+                        currentBlock = currentBlock.next;
+                        indexInCurrentBlock = 0;
+                    }
+                }
+            }
         };
     }
 
@@ -225,6 +657,8 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
             private Node<E> currentBlock = tail;
             private int indexInCurrentBlock = indexInTailBlock;
             private int remaining = size;
+            private Node<E> lastReturnedBlock;
+            private int lastReturnedIndex = -1;
 
             @Override
             public boolean hasNext() {
@@ -238,29 +672,350 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
                 }
 
                 E element = currentBlock.elements[indexInCurrentBlock];
+                lastReturnedBlock = currentBlock;
+                lastReturnedIndex = indexInCurrentBlock;
                 indexInCurrentBlock--;
                 remaining--;
                 if (indexInCurrentBlock < 0 && remaining > 0) {
                     currentBlock = currentBlock.prev;
-                    indexInCurrentBlock = blockSize - 1;
+                    indexInCurrentBlock = currentBlock.elements.length - 1;
                 }
                 return element;
             }
+
+            @Override
+            public void remove() {
+                if (lastReturnedIndex < 0) {
+                    throw new IllegalStateException();
+                }
+                if (delete(lastReturnedBlock, lastReturnedIndex, remaining)) {
+                    // the elements not yet returned moved one slot towards the tail
+                    currentBlock = lastReturnedBlock;
+                    indexInCurrentBlock = lastReturnedIndex;
+                }
+                lastReturnedBlock = null;
+                lastReturnedIndex = -1;
+            }
+
+            @Override
+            public void forEachRemaining(Consumer<? super E> action) {
+                Objects.requireNonNull(action);
+                while (remaining > 0) {
+                    E[] elements = currentBlock.elements;
+                    int to = Math.max(-1, indexInCurrentBlock - remaining);
+                    for (int i = indexInCurrentBlock; i > to; i--) {
+                        action.accept(elements[i]);
+                    }
+                    lastReturnedBlock = currentBlock;
+                    lastReturnedIndex = to + 1;
+                    remaining -= indexInCurrentBlock - to;
+                    indexInCurrentBlock = to;
+                    if (to < 0 && remaining > 0) {
+                        currentBlock = currentBlock.prev;
+                        indexInCurrentBlock = currentBlock.elements.length - 1;
+                    }
+                }
+            }
         };
     }
 
+    /**
+     * Walks the elements from the head with a tight loop per block.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        forEachInBlocks(head, indexInHeadBlock, size, action);
+    }
+
+    private static <E> void forEachInBlocks(Node<E> block, int index, int count, Consumer<? super E> action) {
+        while (count > 0) {
+            E[] elements = block.elements;
+            int to = Math.min(elements.length, index + count);
+            for (int i = index; i < to; i++) {
+                action.accept(elements[i]);
+            }
+            count -= to - index;
+            block = block.next;
+            index = 0;
+        }
+    }
+
+    /**
+     * Returns a cursor positioned at the head. A cursor can be kept and {@link Cursor#resetAscending() reset}
+     * for every scan, so that traversals do not allocate.
+     */
+    public Cursor cursor() {
+        return new Cursor().resetAscending();
+    }
+
+    /**
+     * Reusable position in the deque. Like the iterators, a cursor must be reset after the deque was modified.
+     */
+    public final class Cursor {
+
+        private Node<E> block;
+        private int index;
+        private int remaining;
+        private boolean descending;
+
+        private Cursor() {
+        }
+
+        /**
+         * Positions the cursor before the head, {@link #next()} then moves towards the tail.
+         */
+        public Cursor resetAscending() {
+            block = head;
+            index = indexInHeadBlock;
+            remaining = size;
+            descending = false;
+            return this;
+        }
+
+        /**
+         * Positions the cursor after the tail, {@link #next()} then moves towards the head.
+         */
+        public Cursor resetDescending() {
+            block = tail;
+            index = indexInTailBlock;
+            remaining = size;
+            descending = true;
+            return this;
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public E next() {
+            if (remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            E element = block.elements[index];
+            remaining--;
+            if (remaining == 0) {
+                // do not keep a block the deque may drop
+                block = null;
+            } else if (descending) {
+                if (--index < 0) {
+                    block = block.prev;
+                    index = block.elements.length - 1;
+                }
+            } else if (++index == block.elements.length) {
+                block = block.next;
+                index = 0;
+            }
+            return element;
+        }
+
+    }
+
+    /**
+     * Returns a spliterator that splits at block boundaries, so each part walks whole blocks without following links
+     * for every element. It is bound to the deque at the time of the call.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new BlockSpliterator<>(head, indexInHeadBlock, size);
+    }
+
+    private static final class BlockSpliterator<E> implements Spliterator<E> {
+
+        private Node<E> block;
+        private int index;
+        private int remaining;
+
+        BlockSpliterator(Node<E> block, int index, int remaining) {
+            this.block = block;
+            this.index = index;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+            if (remaining <= 0) {
+                return false;
+            }
+            E element = block.elements[index];
+            index++;
+            remaining--;
+            if (index == block.elements.length && remaining > 0) {
+                block = block.next;
+                index = 0;
+            }
+            action.accept(element);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            if (action == null) throw new NullPointerException();
+            int count = remaining;
+            remaining = 0;
+            forEachInBlocks(block, index, count, action);
+        }
+
+        /**
+         * Splits off a prefix of about half of the remaining elements, ending at a block boundary.
+         * Returns null when all remaining elements are in one block.
+         */
+        @Override
+        public Spliterator<E> trySplit() {
+            int prefix = block.elements.length - index;
+            if (remaining <= 0 || remaining <= prefix) {
+                return null;
+            }
+            Node<E> suffixBlock = block.next;
+            int half = remaining / 2;
+            while (prefix + suffixBlock.elements.length <= half) {
+                prefix += suffixBlock.elements.length;
+                suffixBlock = suffixBlock.next;
+            }
+            Spliterator<E> prefixSpliterator = new BlockSpliterator<>(block, index, prefix);
+            block = suffixBlock;
+            index = 0;
+            remaining -= prefix;
+            return prefixSpliterator;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        // null elements are allowed, so no NONNULL
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        copyInto(result);
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        if (a.length < size) {
+            a = (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+        }
+        copyInto(a);
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
+    }
+
+    /**
+     * Same as {@code Collection.toArray(IntFunction)} of Java 11, but the generator is asked for an array of the deque size
+     * rather than an empty one.
+     */
+    public <T> T[] toArray(IntFunction<T[]> generator) {
+        return toArray(generator.apply(size));
+    }
+
+    // copies the live range of each block, in deque order
+    private void copyInto(Object[] dest) {
+        Node<E> block = head;
+        int index = indexInHeadBlock;
+        int copied = 0;
+        while (copied < size) {
+            int run = Math.min(size - copied, block.elements.length - index);
+            System.arraycopy(block.elements, index, dest, copied, run);
+            copied += run;
+            block = block.next;
+            index = 0;
+        }
+    }
+
     @Override
     public boolean isEmpty() {
         return size == 0;
     }
 
 
+    /**
+     * Drops all blocks and starts over with a new head block, the dropped blocks are not kept as spare blocks.
+     */
     @Override
     public void clear() {
+        if (listener != UnrolledDequeListener.NO_OP && head != PLACEHOLDER) {
+            for (Node<E> node = head; ; node = node.next) {
+                listener.blockReleased(node.elements.length, false);
+                if (node == tail) {
+                    break;
+                }
+            }
+        }
         head = new Node<>(blockSize);
+        head.epoch = epoch;
+        blockCount = 1;
+        allocatedSlots = blockSize;
+        listener.blockAllocated(blockSize, false);
         setToClearState();
     }
 
+    /**
+     * Sets the listener notified of block allocations, releases and a raised high water mark,
+     * {@link UnrolledDequeListener#NO_OP} disables notifications.
+     */
+    public void setListener(UnrolledDequeListener listener) {
+        this.listener = Objects.requireNonNull(listener, "listener");
+    }
+
+    /**
+     * @return the number of blocks linked into the deque, not counting spare blocks
+     */
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * @return the total length of the blocks linked into the deque, of which {@link #size()} slots are in use
+     */
+    public long allocatedSlots() {
+        return allocatedSlots;
+    }
+
+    /**
+     * @return the fraction of the head block's slots holding elements, 0 for an empty deque
+     */
+    public double headBlockOccupancy() {
+        if (size == 0) {
+            return 0;
+        }
+        int live = head == tail ? size : head.elements.length - indexInHeadBlock;
+        return (double) live / head.elements.length;
+    }
+
+    /**
+     * @return the fraction of the tail block's slots holding elements, 0 for an empty deque
+     */
+    public double tailBlockOccupancy() {
+        if (size == 0) {
+            return 0;
+        }
+        int live = head == tail ? size : indexInTailBlock + 1;
+        return (double) live / tail.elements.length;
+    }
+
+    /**
+     * Estimates the bytes held by the blocks, including spare blocks, assuming a 64-bit JVM with compressed references.
+     * The elements themselves are not counted. Runs in constant time.
+     */
+    public long estimatedShallowBytes() {
+        long blocks = blockCount + spareBlockCount;
+        long slots = allocatedSlots + spareSlots;
+        return blocks * (NODE_BYTES + ARRAY_HEADER_BYTES) + slots * REFERENCE_BYTES;
+    }
+
     private E tryGetFirst() {
         if (size == 0) {
             return null;
@@ -275,32 +1030,153 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
         return tail.elements[indexInTailBlock];
     }
 
+    /**
+     * The size of the next block: blockSize, or in adaptive mode a quarter of the deque size rounded down
+     * to a power of two, but within blockSize and maxBlockSize.
+     */
+    private int nextBlockSize() {
+        if (maxBlockSize == blockSize) {
+            return blockSize;
+        }
+        return Math.min(maxBlockSize, Math.max(blockSize, Integer.highestOneBit(size) >> 2));
+    }
+
+    private Node<E> allocateBlock() {
+        int length = nextBlockSize();
+        blockCount++;
+        allocatedSlots += length;
+        if (size > highWaterMark) {
+            highWaterMark = size;
+            listener.highWaterMarkRaised(size);
+        }
+        Node<E> node = spareBlocks;
+        if (node != null && node.elements.length != length) {
+            // the deque has grown or shrunk since the spare blocks were released
+            spareBlocks = null;
+            spareBlockCount = 0;
+            spareSlots = 0;
+            node = null;
+        }
+        if (node == null) {
+            listener.blockAllocated(length, false);
+            node = new Node<>(length);
+            node.epoch = epoch;
+            return node;
+        }
+        spareBlocks = node.next;
+        node.next = null;
+        node.epoch = epoch;
+        spareBlockCount--;
+        spareSlots -= length;
+        listener.blockAllocated(length, true);
+        return node;
+    }
+
+    /**
+     * Must be called before writing to the elements or links of a block that is not new. If the block may be shared
+     * with a snapshot, its contents are frozen for the snapshot and the deque continues on a copy of the elements.
+     * The head and tail blocks are always owned, so that adding and removing at the ends needs no check.
+     */
+    private void own(Node<E> node) {
+        if (node.epoch != epoch) {
+            Frozen<E> previous = node.frozen == null ? null : node.frozen.get();
+            if (previous != null) {
+                // the snapshots it was frozen for can no longer read the block, see Snapshot.frozen
+                previous.elements = null;
+                previous.next = null;
+                previous.prev = null;
+            }
+            Generation<E> latest = generation == null ? null : generation.get();
+            if (latest == null) {
+                // no snapshot left to share the block with
+                node.frozen = null;
+            } else {
+                Frozen<E> frozen = new Frozen<>(node.elements, node.next, node.prev, node.epoch);
+                latest.frozen.add(frozen);
+                node.frozen = new WeakReference<>(frozen);
+                node.elements = Arrays.copyOf(node.elements, node.elements.length);
+            }
+            node.epoch = epoch;
+        }
+    }
+
+    /**
+     * The block must already be unlinked from the deque and all its elements nulled out.
+     */
+    private void releaseBlock(Node<E> node) {
+        node.prev = null;
+        blockCount--;
+        allocatedSlots -= node.elements.length;
+        boolean kept = spareBlockCount < maxSpareBlocks && node.elements.length == nextBlockSize();
+        listener.blockReleased(node.elements.length, kept);
+        if (kept) {
+            node.next = spareBlocks;
+            spareBlocks = node;
+            spareBlockCount++;
+            spareSlots += node.elements.length;
+        } else {
+            node.next = null;
+        }
+    }
+
+    /**
+     * @return the number of released blocks kept for reuse
+     */
+    public int spareBlockCount() {
+        return spareBlockCount;
+    }
+
+    int tailBlockLength() {
+        return tail.elements.length;
+    }
+
     private boolean tryAddFirst(E element) {
+        if (size == capacity) {
+            E evicted = tryRemoveLast();
+            addFirstUnbounded(element);
+            evicted(evicted);
+            return true;
+        }
+        addFirstUnbounded(element);
+        return true;
+    }
+
+    private void addFirstUnbounded(E element) {
         indexInHeadBlock--;
         if (head == PLACEHOLDER) {
-            head = new Node<>(blockSize);
+            head = allocateBlock();
             tail = head;
         } else if (indexInHeadBlock < 0) {
-            Node<E> newNode = new Node<>(blockSize);
+            Node<E> newNode = allocateBlock();
             if (size != 0) { // Only link nodes if the deque is not empty
                 newNode.next = head;
                 head.prev = newNode;
             }
             head = newNode;
-            indexInHeadBlock = blockSize - 1;
+            indexInHeadBlock = newNode.elements.length - 1;
         }
         head.elements[indexInHeadBlock] = element;
         size++;
-        return true;
     }
 
     private boolean tryAddLast(E element) {
+        if (size == capacity) {
+            E evicted = tryRemoveFirst();
+            addLastUnbounded(element);
+            evicted(evicted);
+            return true;
+        }
+        addLastUnbounded(element);
+        return true;
+    }
+
+    private void addLastUnbounded(E element) {
         indexInTailBlock++;
         if (head == PLACEHOLDER) {
-            head = new Node<>(blockSize);
+            head = allocateBlock();
             tail = head;
-        } else if (indexInTailBlock == blockSize) {
-            Node<E> newNode = new Node<>(blockSize);
+        } else if (indexInTailBlock == tail.elements.length) {
+            Node<E> newNode = allocateBlock();
             tail.next = newNode;
             newNode.prev = tail;
             tail = newNode;
@@ -308,7 +1184,19 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
         }
         tail.elements[indexInTailBlock] = element;
         size++;
-        return true;
+    }
+
+    private void evicted(E element) {
+        if (onEviction != null) {
+            onEviction.accept(element);
+        }
+    }
+
+    /**
+     * @return the maximum number of elements, {@link Integer#MAX_VALUE} unless created by {@link #evicting}
+     */
+    public int capacity() {
+        return capacity;
     }
 
     private E tryRemoveFirst() {
@@ -320,10 +1208,13 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
         E element = head.elements[effectiveIndex];
         head.elements[effectiveIndex] = null; // releasing memory!
         indexInHeadBlock++;
-        if (indexInHeadBlock == blockSize) {
+        if (indexInHeadBlock == head.elements.length) {
             if (head != tail) {
+                Node<E> removed = head;
                 head = head.next;
+                own(head);
                 head.prev = null;
+                releaseBlock(removed);
             }
             indexInHeadBlock = 0;
         }
@@ -351,16 +1242,515 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
                     setToClearState();
                 }
             } else {
-                Node<E> prev = tail.prev;
-                prev.next = null;
+                Node<E> removed = tail;
                 tail = tail.prev;
-                indexInTailBlock = blockSize - 1;
+                own(tail);
+                tail.next = null;
+                releaseBlock(removed);
+                indexInTailBlock = tail.elements.length - 1;
             }
         }
 
         return element;
     }
 
+    /**
+     * Removes the element at {@code index} in {@code block}, which is the {@code position}-th element from the head.
+     * The elements between it and the nearer end are moved one slot towards the gap, a block run at a time,
+     * so interior blocks stay full and only the end block can become empty, in which case it is released.
+     *
+     * @return true if the elements in front of the removed one were moved, false if the ones behind it were
+     */
+    private boolean delete(Node<E> block, int index, int position) {
+        if (position < size / 2) {
+            while (true) {
+                own(block);
+                int from = block == head ? indexInHeadBlock : 0;
+                System.arraycopy(block.elements, from, block.elements, from + 1, index - from);
+                if (block == head) {
+                    break;
+                }
+                // carry the last element of the previous block over the boundary
+                block = block.prev;
+                index = block.elements.length - 1;
+                block.next.elements[0] = block.elements[index];
+            }
+            tryRemoveFirst();
+            return true;
+        }
+        while (true) {
+            own(block);
+            int to = block == tail ? indexInTailBlock : block.elements.length - 1;
+            System.arraycopy(block.elements, index + 1, block.elements, index, to - index);
+            if (block == tail) {
+                break;
+            }
+            block.elements[to] = block.next.elements[0];
+            block = block.next;
+            index = 0;
+        }
+        tryRemoveLast();
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLastRun(Object[] source, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (length > capacity - size) {
+            // evicting one at a time
+            for (int i = offset; i < offset + length; i++) {
+                tryAddLast((E) source[i]);
+            }
+            return;
+        }
+        if (head == PLACEHOLDER) {
+            head = allocateBlock();
+            tail = head;
+        }
+        int copied = 0;
+        while (copied < length) {
+            if (indexInTailBlock == tail.elements.length - 1) {
+                Node<E> newNode = allocateBlock();
+                tail.next = newNode;
+                newNode.prev = tail;
+                tail = newNode;
+                indexInTailBlock = -1;
+            }
+            int run = Math.min(length - copied, tail.elements.length - 1 - indexInTailBlock);
+            System.arraycopy(source, offset + copied, tail.elements, indexInTailBlock + 1, run);
+            indexInTailBlock += run;
+            copied += run;
+            size += run;
+        }
+    }
+
+    // copies from the end of the source, so that the head block is filled towards its start
+    @SuppressWarnings("unchecked")
+    private void addFirstRun(Object[] source, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (length > capacity - size) {
+            for (int i = offset + length - 1; i >= offset; i--) {
+                tryAddFirst((E) source[i]);
+            }
+            return;
+        }
+        if (head == PLACEHOLDER) {
+            head = allocateBlock();
+            tail = head;
+        }
+        int remaining = length;
+        while (remaining > 0) {
+            if (indexInHeadBlock == 0) {
+                Node<E> newNode = allocateBlock();
+                newNode.next = head;
+                head.prev = newNode;
+                head = newNode;
+                indexInHeadBlock = newNode.elements.length;
+            }
+            int run = Math.min(remaining, indexInHeadBlock);
+            System.arraycopy(source, offset + remaining - run, head.elements, indexInHeadBlock - run, run);
+            indexInHeadBlock -= run;
+            remaining -= run;
+            size += run;
+        }
+    }
+
+    /**
+     * Moves up to {@code max} elements from the head into {@code dest}, copying a whole block run at a time.
+     *
+     * @return the number of elements moved
+     */
+    int drainFirst(Object[] dest, int offset, int max) {
+        int count = Math.min(max, size);
+        int copied = 0;
+        while (copied < count) {
+            int run = Math.min(count - copied, head.elements.length - indexInHeadBlock);
+            System.arraycopy(head.elements, indexInHeadBlock, dest, offset + copied, run);
+            Arrays.fill(head.elements, indexInHeadBlock, indexInHeadBlock + run, null); // releasing memory!
+            copied += run;
+            size -= run;
+            indexInHeadBlock += run;
+            if (indexInHeadBlock == head.elements.length) {
+                if (head != tail) {
+                    Node<E> removed = head;
+                    head = head.next;
+                    own(head);
+                    head.prev = null;
+                    releaseBlock(removed);
+                }
+                indexInHeadBlock = 0;
+            }
+        }
+        if (size == 0) {
+            setToClearState();
+        }
+        return copied;
+    }
+
+    /**
+     * Moves up to {@code max} elements from the tail into {@code dest}, copying a whole block run at a time.
+     * The elements keep their deque order, the last one ends up at {@code offset + count - 1}.
+     *
+     * @return the number of elements moved
+     */
+    int drainLast(Object[] dest, int offset, int max) {
+        int count = Math.min(max, size);
+        int copied = 0;
+        while (copied < count) {
+            int run = Math.min(count - copied, indexInTailBlock + 1);
+            int from = indexInTailBlock + 1 - run;
+            System.arraycopy(tail.elements, from, dest, offset + count - copied - run, run);
+            Arrays.fill(tail.elements, from, indexInTailBlock + 1, null); // releasing memory!
+            copied += run;
+            size -= run;
+            indexInTailBlock = from - 1;
+            if (indexInTailBlock < 0 && head != tail) {
+                Node<E> removed = tail;
+                tail = tail.prev;
+                own(tail);
+                tail.next = null;
+                releaseBlock(removed);
+                indexInTailBlock = tail.elements.length - 1;
+            }
+        }
+        if (size == 0) {
+            setToClearState();
+        }
+        return copied;
+    }
+
+    /**
+     * Returns a copy of the deque, made by copying every block with {@link Arrays#copyOf}. The elements themselves
+     * are not cloned. The copy starts without spare blocks and with the {@link UnrolledDequeListener#NO_OP} listener.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public UnrolledLinkedListDeque<E> clone() {
+        UnrolledLinkedListDeque<E> copy;
+        try {
+            copy = (UnrolledLinkedListDeque<E>) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        copy.spareBlocks = null;
+        copy.spareBlockCount = 0;
+        copy.spareSlots = 0;
+        copy.listener = UnrolledDequeListener.NO_OP;
+        copy.generation = null;
+        if (head == PLACEHOLDER) {
+            return copy;
+        }
+        Node<E> previous = null;
+        for (Node<E> block = head; block != null; block = block.next) {
+            Node<E> node = new Node<>(Arrays.copyOf(block.elements, block.elements.length));
+            node.epoch = epoch;
+            if (previous == null) {
+                copy.head = node;
+            } else {
+                previous.next = node;
+                node.prev = previous;
+            }
+            previous = node;
+        }
+        copy.tail = previous;
+        return copy;
+    }
+
+    /**
+     * Returns a read-only view of the current contents that shares the blocks with this deque. Only the head and tail
+     * blocks are copied up front, any other block is copied when this deque first writes to it, so a snapshot costs
+     * nothing while the middle of the deque is left alone.
+     * <p>
+     * A snapshot stays valid while newer snapshots are taken, until a block it shares is written to again after
+     * a newer snapshot. Reading it then throws {@link ConcurrentModificationException}. The latest snapshot is always valid.
+     * The old contents of written blocks are kept only while a snapshot that may read them is reachable.
+     */
+    public Deque<E> snapshot() {
+        Generation<E> newGeneration = new Generation<>();
+        Generation<E> latest = generation == null ? null : generation.get();
+        if (latest != null) {
+            latest.newer = newGeneration;
+        }
+        generation = new WeakReference<>(newGeneration);
+        Deque<E> snapshot = new Snapshot<>(head, indexInHeadBlock, tail, indexInTailBlock, size, epoch, newGeneration);
+        epoch++;
+        if (head != PLACEHOLDER) {
+            own(head);
+            own(tail);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the settings, the size and then the elements block by block, without the block links.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        Node<E> block = head;
+        int index = indexInHeadBlock;
+        int remaining = size;
+        while (remaining > 0) {
+            E[] elements = block.elements;
+            int to = Math.min(elements.length, index + remaining);
+            for (int i = index; i < to; i++) {
+                out.writeObject(elements[i]);
+            }
+            remaining -= to - index;
+            block = block.next;
+            index = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        try {
+            validateBlockSize();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+        if (center != blockSize / 2 - 1 || maxBlockSize < blockSize || maxSpareBlocks < 0 || capacity <= 0) {
+            throw new InvalidObjectException("inconsistent block settings");
+        }
+        int count = in.readInt();
+        if (count < 0) {
+            throw new InvalidObjectException("negative size " + count);
+        }
+        listener = UnrolledDequeListener.NO_OP;
+        head = (Node<E>) PLACEHOLDER;
+        setToClearState();
+        for (int i = 0; i < count; i++) {
+            tryAddLast((E) in.readObject());
+        }
+    }
+
+    private static final class Snapshot<E> extends AbstractCollection<E> implements Deque<E> {
+
+        private final Node<E> head;
+        private final int indexInHeadBlock;
+        private final Node<E> tail;
+        private final int indexInTailBlock;
+        private final int size;
+        private final int epoch;
+        // keeps the blocks frozen for this snapshot reachable
+        private final Generation<E> generation;
+
+        Snapshot(Node<E> head, int indexInHeadBlock, Node<E> tail, int indexInTailBlock, int size, int epoch,
+                 Generation<E> generation) {
+            this.head = head;
+            this.indexInHeadBlock = indexInHeadBlock;
+            this.tail = tail;
+            this.indexInTailBlock = indexInTailBlock;
+            this.size = size;
+            this.epoch = epoch;
+            this.generation = generation;
+        }
+
+        // the block as it was when the snapshot was taken
+        private Frozen<E> frozen(Node<E> node) {
+            Frozen<E> frozen = node.frozen == null ? null : node.frozen.get();
+            if (frozen == null || frozen.since > epoch) {
+                throw new ConcurrentModificationException("the block was written to after a newer snapshot");
+            }
+            return frozen;
+        }
+
+        private E[] elements(Node<E> node) {
+            return node.epoch > epoch ? frozen(node).elements : node.elements;
+        }
+
+        private Node<E> next(Node<E> node) {
+            return node.epoch > epoch ? frozen(node).next : node.next;
+        }
+
+        private Node<E> prev(Node<E> node) {
+            return node.epoch > epoch ? frozen(node).prev : node.prev;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private Node<E> block = head;
+                private E[] elements = size == 0 ? null : elements(head);
+                private int index = indexInHeadBlock;
+                private int remaining = size;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public E next() {
+                    if (remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    E element = elements[index];
+                    remaining--;
+                    if (++index == elements.length && remaining > 0) {
+                        block = Snapshot.this.next(block);
+                        elements = elements(block);
+                        index = 0;
+                    }
+                    return element;
+                }
+            };
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return new Iterator<E>() {
+                private Node<E> block = tail;
+                private E[] elements = size == 0 ? null : elements(tail);
+                private int index = indexInTailBlock;
+                private int remaining = size;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public E next() {
+                    if (remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    E element = elements[index];
+                    remaining--;
+                    if (--index < 0 && remaining > 0) {
+                        block = prev(block);
+                        elements = elements(block);
+                        index = elements.length - 1;
+                    }
+                    return element;
+                }
+            };
+        }
+
+        @Override
+        public E peekFirst() {
+            return size == 0 ? null : elements(head)[indexInHeadBlock];
+        }
+
+        @Override
+        public E peekLast() {
+            return size == 0 ? null : elements(tail)[indexInTailBlock];
+        }
+
+        @Override
+        public E getFirst() {
+            if (size == 0) throw new NoSuchElementException();
+            return peekFirst();
+        }
+
+        @Override
+        public E getLast() {
+            if (size == 0) throw new NoSuchElementException();
+            return peekLast();
+        }
+
+        @Override
+        public E peek() {
+            return peekFirst();
+        }
+
+        @Override
+        public E element() {
+            return getFirst();
+        }
+
+        @Override
+        public void addFirst(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addLast(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean offerFirst(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean offerLast(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E removeFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E removeLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeFirstOccurrence(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removeLastOccurrence(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean offer(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E poll() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void push(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public E pop() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
     private void throwIfEmpty() {
         if (size == 0)
             throw new NoSuchElementException();
@@ -378,7 +1768,7 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
 
     @Override
     public boolean remove(Object o) {
-        throw new UnsupportedOperationException();
+        return removeFirstOccurrence(o);
     }
 
     @Override
@@ -390,18 +1780,38 @@ public class UnrolledLinkedListDeque<E> extends AbstractCollection<E> implements
             return contains(elements.iterator().next());
         }
         Set<Object> testSet = new HashSet<>(elements);
-        for (Object dequeElement : this) {
-            testSet.remove(dequeElement);
+        Node<E> block = head;
+        int index = indexInHeadBlock;
+        int remaining = size;
+        while (remaining > 0 && !testSet.isEmpty()) {
+            E[] blockElements = block.elements;
+            int to = Math.min(blockElements.length, index + remaining);
+            for (int i = index; i < to; i++) {
+                testSet.remove(blockElements[i]);
+            }
+            remaining -= to - index;
+            block = block.next;
+            index = 0;
         }
         return testSet.isEmpty();
     }
 
     @Override
     public boolean contains(Object o) {
-        for (Object object : this) {
-            if (object.equals(o)) {
-                return true;
+        Node<E> block = head;
+        int index = indexInHeadBlock;
+        int remaining = size;
+        while (remaining > 0) {
+            E[] elements = block.elements;
+            int to = Math.min(elements.length, index + remaining);
+            for (int i = index; i < to; i++) {
+                if (Objects.equals(o, elements[i])) {
+                    return true;
+                }
             }
+            remaining -= to - index;
+            block = block.next;
+            index = 0;
         }
         return false;
     }
@@ -0,0 +1,208 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fork-join style executor with a {@link WorkStealingUnrolledDeque} per worker thread.
+ * <p>
+ * Tasks submitted from a worker thread go to the tail of its own deque and are run in LIFO order.
+ * Tasks submitted from other threads go to a shared queue. An idle worker steals from the head of the other workers'
+ * deques, taking up to half of a victim's tasks at once.
+ */
+public class WorkStealingExecutor extends AbstractExecutorService {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private final Worker[] workers;
+    private final ConcurrentLinkedQueue<Runnable> submissions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger parkedWorkers = new AtomicInteger();
+    private final CountDownLatch terminated;
+    private volatile boolean shutdown;
+    private volatile boolean stopped;
+
+    private final class Worker extends Thread {
+
+        private final WorkStealingUnrolledDeque<Runnable> tasks;
+        private volatile boolean parked;
+
+        Worker(int index, int blockSize) {
+            super("unrolled-worker-" + index);
+            tasks = new WorkStealingUnrolledDeque<>(blockSize);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    Runnable task = findTask(this);
+                    if (task != null) {
+                        runTask(task);
+                    } else if (shutdown) {
+                        break;
+                    } else {
+                        idle(this);
+                    }
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+
+        private WorkStealingExecutor executor() {
+            return WorkStealingExecutor.this;
+        }
+
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                getUncaughtExceptionHandler().uncaughtException(this, e);
+            }
+        }
+
+    }
+
+    public WorkStealingExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingExecutor(int parallelism) {
+        this(parallelism, 128);
+    }
+
+    public WorkStealingExecutor(int parallelism, int blockSize) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+        workers = new Worker[parallelism];
+        terminated = new CountDownLatch(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i, blockSize);
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) throw new NullPointerException();
+        Thread thread = Thread.currentThread();
+        if (thread instanceof Worker && ((Worker) thread).executor() == this && !stopped) {
+            // running tasks may keep forking after shutdown, so that their work completes
+            ((Worker) thread).tasks.push(task);
+        } else {
+            if (shutdown) throw new RejectedExecutionException("executor has been shut down");
+            submissions.offer(task);
+        }
+        if (parkedWorkers.get() > 0) {
+            wakeUpOne();
+        }
+    }
+
+    private Runnable findTask(Worker worker) {
+        Runnable task = worker.tasks.pop();
+        if (task != null) {
+            return task;
+        }
+        task = submissions.poll();
+        if (task != null) {
+            return task;
+        }
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker victim = workers[(start + i) % workers.length];
+            if (victim != worker && victim.tasks.stealInto(worker.tasks) > 0) {
+                return worker.tasks.pop();
+            }
+        }
+        return null;
+    }
+
+    private boolean hasVisibleTasks() {
+        if (!submissions.isEmpty()) {
+            return true;
+        }
+        for (Worker worker : workers) {
+            if (!worker.tasks.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void idle(Worker worker) {
+        worker.parked = true;
+        parkedWorkers.incrementAndGet();
+        // re-check after announcing, a submitter that missed the announcement has already made its task visible
+        if (!hasVisibleTasks() && !shutdown) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        parkedWorkers.decrementAndGet();
+        worker.parked = false;
+    }
+
+    private void wakeUpOne() {
+        for (Worker worker : workers) {
+            if (worker.parked) {
+                LockSupport.unpark(worker);
+                return;
+            }
+        }
+    }
+
+    public int getParallelism() {
+        return workers.length;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        stopped = true;
+        for (Worker worker : workers) {
+            worker.interrupt();
+        }
+        List<Runnable> pending = new ArrayList<>();
+        Runnable task;
+        while ((task = submissions.poll()) != null) {
+            pending.add(task);
+        }
+        for (Worker worker : workers) {
+            while ((task = worker.tasks.steal()) != null) {
+                pending.add(task);
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.dunemaster.unrolleddeque;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work-stealing deque laid out in blocks like {@link UnrolledLinkedListDeque}.
+ * <p>
+ * The owner thread pushes and pops at the tail without locking. Any other thread can steal from the head.
+ * Thieves are serialized by a lock, which the owner only takes when it competes with a thief for the last elements
+ * (the THE protocol used by Cilk). A thief takes up to half of the elements it sees in one steal,
+ * and when the deque is deep it takes a whole block over without copying it.
+ * <p>
+ * Elements are addressed by an ever-growing position: thieves take from {@code top}, the owner works at {@code bottom}.
+ * Null elements are not permitted.
+ */
+public class WorkStealingUnrolledDeque<E> {
+
+    private static final int DEFAULT_BLOCK_SIZE = 128;
+    private final int blockSize;
+    // taken by thieves, and by the owner when it races with a thief
+    private final ReentrantLock stealLock = new ReentrantLock();
+    // written only by thieves holding stealLock
+    private volatile long top;
+    // written only by the owner
+    private volatile long bottom;
+    // owner only
+    private Block tailBlock;
+    // thieves only, guarded by stealLock
+    private Block headBlock;
+
+    private static final class Block {
+
+        private final Object[] elements;
+        // position of elements[0]
+        private final long base;
+        // positions [base, base + capacity) live in this block, shrunk by the owner when it appends a stolen block
+        private int capacity;
+        private Block next;
+        private Block prev;
+
+        Block(Object[] elements, long base) {
+            this.elements = elements;
+            this.base = base;
+            this.capacity = elements.length;
+        }
+
+    }
+
+    public WorkStealingUnrolledDeque() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public WorkStealingUnrolledDeque(int blockSize) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        this.blockSize = blockSize;
+        tailBlock = new Block(new Object[blockSize], 0);
+        headBlock = tailBlock;
+    }
+
+    /**
+     * Adds an element at the tail. Must only be called by the owner thread.
+     */
+    public void push(E e) {
+        if (e == null) throw new NullPointerException();
+        long b = bottom;
+        Block block = tailBlock;
+        int index = (int) (b - block.base);
+        if (index == block.capacity) {
+            // the previous tail is kept as a spare after the owner pops back out of it
+            Block next = block.next;
+            if (next == null) {
+                next = new Block(new Object[blockSize], b);
+                next.prev = block;
+                block.next = next;
+            }
+            tailBlock = next;
+            block = next;
+            index = 0;
+        }
+        block.elements[index] = e;
+        bottom = b + 1;
+    }
+
+    /**
+     * Removes the element at the tail, LIFO order. Must only be called by the owner thread.
+     *
+     * @return the element or null if the deque is empty
+     */
+    public E pop() {
+        long b = bottom - 1;
+        if (top > b) {
+            // a pending claim never reaches past bottom, so this is not a transient state
+            return null;
+        }
+        Block block = tailBlock;
+        if (b < block.base) {
+            block = block.prev;
+            if (block == null) {
+                // thieves have already moved past the previous block, so the deque is empty
+                return null;
+            }
+        }
+        bottom = b;
+        if (top <= b) {
+            return takeLast(block, b);
+        }
+        // a thief may hold a claim on b, wait for it to settle
+        stealLock.lock();
+        try {
+            if (top <= b) {
+                return takeLast(block, b);
+            }
+            bottom = b + 1;
+            return null;
+        } finally {
+            stealLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E takeLast(Block block, long position) {
+        int index = (int) (position - block.base);
+        E element = (E) block.elements[index];
+        block.elements[index] = null;
+        if (block != tailBlock) {
+            // the old tail stays linked as a spare, anything after it is dropped
+            tailBlock.next = null;
+            tailBlock = block;
+        }
+        return element;
+    }
+
+    /**
+     * Removes the element at the head. Can be called by any thread.
+     *
+     * @return the element or null if the deque is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E steal() {
+        stealLock.lock();
+        try {
+            long t = top;
+            if (!claim(t, 1)) {
+                return null;
+            }
+            Block block = advanceHead(t);
+            int index = (int) (t - block.base);
+            E element = (E) block.elements[index];
+            block.elements[index] = null;
+            return element;
+        } finally {
+            stealLock.unlock();
+        }
+    }
+
+    /**
+     * Moves up to half of the elements, but no more than one block, from the head of this deque to the tail of
+     * {@code thief}. When the head block is full and this deque holds at least two blocks worth of elements,
+     * the block itself is handed over. Must be called by the owner thread of {@code thief}.
+     *
+     * @return the number of elements moved
+     */
+    public int stealInto(WorkStealingUnrolledDeque<E> thief) {
+        if (thief == this) throw new IllegalArgumentException("cannot steal from itself");
+        long t;
+        int count;
+        Block block;
+        stealLock.lock();
+        try {
+            t = top;
+            long available = bottom - t;
+            if (available <= 0) {
+                return 0;
+            }
+            block = advanceHead(t);
+            int remainingInBlock = (int) (block.base + block.capacity - t);
+            count = (int) Math.min(remainingInBlock, Math.max(1, available / 2));
+            while (!claim(t, count)) {
+                available = bottom - t;
+                if (available <= 0) {
+                    return 0;
+                }
+                count = (int) Math.min(count, Math.max(1, available / 2));
+            }
+        } finally {
+            stealLock.unlock();
+        }
+        // the claimed range is ours, neither the owner nor other thieves touch it any more
+        Object[] elements = block.elements;
+        if (count == elements.length && count == thief.blockSize) {
+            // the block stays linked here until the next steal moves the head past it, but only its links are read
+            thief.appendBlock(elements);
+            return count;
+        }
+        int from = (int) (t - block.base);
+        for (int i = from; i < from + count; i++) {
+            @SuppressWarnings("unchecked")
+            E element = (E) elements[i];
+            elements[i] = null;
+            thief.push(element);
+        }
+        return count;
+    }
+
+    /**
+     * Announces a claim on positions [t, t + count) and backs off if the owner has popped into them meanwhile.
+     * Called with stealLock held.
+     */
+    private boolean claim(long t, int count) {
+        if (bottom - t < count) {
+            return false;
+        }
+        top = t + count;
+        if (bottom < t + count) {
+            top = t;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the block holding {@code position} and drops the blocks before it. Called with stealLock held.
+     */
+    private Block advanceHead(long position) {
+        Block block = headBlock;
+        if (position >= block.base + block.capacity) {
+            do {
+                block = block.next;
+            } while (position >= block.base + block.capacity);
+            block.prev = null;
+            headBlock = block;
+        }
+        return block;
+    }
+
+    /**
+     * Links a block of live elements stolen from another deque after the tail. Owner only.
+     */
+    private void appendBlock(Object[] elements) {
+        stealLock.lock();
+        try {
+            long b = bottom;
+            Block tail = tailBlock;
+            Block block = new Block(elements, b);
+            int used = (int) (b - tail.base);
+            if (used == 0) {
+                // the tail block is empty, replace it
+                block.prev = tail.prev;
+                if (block.prev != null) {
+                    block.prev.next = block;
+                }
+                if (headBlock == tail) {
+                    headBlock = block;
+                }
+            } else {
+                tail.capacity = used;
+                tail.next = block;
+                block.prev = tail;
+            }
+            tailBlock = block;
+            bottom = b + elements.length;
+        } finally {
+            stealLock.unlock();
+        }
+    }
+
+    /**
+     * The result is only a snapshot when other threads steal concurrently.
+     */
+    public int size() {
+        long t = top;
+        long b = bottom;
+        return (int) Math.max(0, b - t);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+}
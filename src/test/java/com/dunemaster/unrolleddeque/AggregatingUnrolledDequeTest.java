@@ -0,0 +1,84 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AggregatingUnrolledDequeTest {
+
+    @Test
+    public void testEmptyDeque() {
+        AggregatingUnrolledDeque<Long, Long> deque = AggregatingUnrolledDeque.of(Long::sum);
+        assertNull(deque.aggregate());
+        assertNull(deque.pollFirst());
+        assertNull(deque.pollLast());
+        assertThrows(NoSuchElementException.class, deque::getFirst);
+        assertThrows(NullPointerException.class, () -> deque.addLast(null));
+        assertThrows(UnsupportedOperationException.class, () -> deque.remove(1L));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        AggregatingUnrolledDeque<Long, Long> sum = new AggregatingUnrolledDeque<>(4, x -> x, Long::sum);
+        AggregatingUnrolledDeque<Long, Long> max = new AggregatingUnrolledDeque<>(4, (Long x) -> x,
+                BinaryOperator.maxBy(Comparator.naturalOrder()));
+        for (long i = 0; i < 100; i++) {
+            sum.addLast(i);
+            max.addLast(i % 17);
+            if (sum.size() > 10) {
+                sum.pollFirst();
+                max.pollFirst();
+            }
+            long from = Math.max(0, i - 9);
+            assertEquals((from + i) * (i - from + 1) / 2, sum.aggregate());
+            long expectedMax = 0;
+            for (long j = from; j <= i; j++) {
+                expectedMax = Math.max(expectedMax, j % 17);
+            }
+            assertEquals(expectedMax, max.aggregate());
+        }
+    }
+
+    @Test
+    public void testAggregateInDequeOrder() {
+        // string concatenation is associative but not commutative, so it checks the order of the combined values
+        Random random = new Random(21);
+        AggregatingUnrolledDeque<Integer, String> deque = new AggregatingUnrolledDeque<>(4, 1,
+                String::valueOf, (a, b) -> a + "," + b);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < 8_000; i++) {
+            // grows and shrinks in turns, so blocks leave the middle at both ends
+            int op = random.nextInt(i % 2000 < 1000 ? 5 : 9);
+            if (op == 0) {
+                deque.addFirst(i);
+                expected.addFirst(i);
+            } else if (op == 1 || op == 4) {
+                deque.addLast(i);
+                expected.addLast(i);
+            } else if (op % 2 == 0) {
+                assertEquals(expected.pollFirst(), deque.pollFirst());
+            } else {
+                assertEquals(expected.pollLast(), deque.pollLast());
+            }
+            assertEquals(expected.size(), deque.size());
+            String joined = expected.isEmpty() ? null
+                    : expected.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).get();
+            assertEquals(joined, deque.aggregate());
+        }
+        assertTrue(deque.containsAll(expected));
+        deque.clear();
+        assertNull(deque.aggregate());
+        deque.push(1);
+        assertEquals("1", deque.aggregate());
+    }
+
+}
@@ -0,0 +1,295 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncUnrolledDequeTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private static class RecordingSubscriber implements AsyncUnrolledDeque.Subscriber<Integer> {
+
+        private final List<Integer> received = new ArrayList<>();
+        private final long initialRequest;
+        private AsyncUnrolledDeque.Subscription subscription;
+        private Throwable error;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(AsyncUnrolledDeque.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+    }
+
+    @Test
+    public void testPollFirstAsync() {
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(4);
+        deque.offer(1);
+        assertEquals(1, deque.pollFirstAsync().join());
+
+        CompletableFuture<Integer> first = deque.pollFirstAsync();
+        CompletableFuture<Integer> cancelled = deque.pollFirstAsync();
+        CompletableFuture<Integer> third = deque.pollFirstAsync();
+        assertFalse(first.isDone());
+        cancelled.cancel(false);
+        deque.offer(2);
+        deque.offer(3);
+        deque.offer(4);
+        assertEquals(2, first.join());
+        assertEquals(3, third.join());
+        assertEquals(1, deque.size());
+        assertEquals(4, deque.pollFirst());
+        assertNull(deque.pollFirst());
+        assertThrows(NullPointerException.class, () -> deque.offer(null));
+    }
+
+    @Test
+    public void testCancelledFuturesAreRemoved() {
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(4);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(deque.pollFirstAsync());
+        }
+        assertEquals(1000, deque.waitingFutureCount());
+        for (int i = 0; i < 999; i++) {
+            futures.get(i).cancel(false);
+        }
+        assertEquals(1, deque.waitingFutureCount());
+        deque.offer(1);
+        assertEquals(1, futures.get(999).join());
+        assertEquals(0, deque.waitingFutureCount());
+        assertEquals(0, deque.size());
+    }
+
+    @Test
+    public void testInvalidRequestErrorFollowsOnNext() {
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(4);
+        List<String> events = new ArrayList<>();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(Integer item) {
+                events.add("next " + item);
+                super.onNext(item);
+                if (item == 1) {
+                    super.subscription.request(-1);
+                    events.add("requested");
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                events.add("error");
+                super.onError(throwable);
+            }
+        };
+        deque.subscribe(subscriber, DIRECT);
+        for (int i = 0; i < 4; i++) {
+            deque.offer(i);
+        }
+        assertEquals(asList("next 0", "next 1", "requested", "error"), events);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        subscriber.subscription.request(-1);
+        assertEquals(4, events.size());
+        assertEquals(2, deque.size());
+    }
+
+    @Test
+    public void testSubscriberDemand() {
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(4);
+        for (int i = 0; i < 10; i++) {
+            deque.offer(i);
+        }
+        RecordingSubscriber subscriber = new RecordingSubscriber(3);
+        deque.subscribe(subscriber, DIRECT);
+        assertEquals(asList(0, 1, 2), subscriber.received);
+
+        subscriber.subscription.request(10);
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), subscriber.received);
+        assertEquals(0, deque.size());
+
+        // the remaining demand is served as elements arrive, futures first
+        CompletableFuture<Integer> future = deque.pollFirstAsync();
+        deque.offer(10);
+        deque.offer(11);
+        assertEquals(10, future.join());
+        assertEquals(11, subscriber.received.get(10));
+
+        subscriber.subscription.cancel();
+        deque.offer(12);
+        assertEquals(11, subscriber.received.size());
+        assertEquals(1, deque.size());
+
+        RecordingSubscriber invalid = new RecordingSubscriber(0);
+        deque.subscribe(invalid, DIRECT);
+        assertTrue(invalid.error instanceof IllegalArgumentException);
+        assertEquals(1, deque.size());
+    }
+
+    @Test
+    public void testFailingSubscriberGivesBackElements() {
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(4);
+        RecordingSubscriber other = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber failing = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                if (item == 1) {
+                    throw new IllegalStateException("boom");
+                }
+            }
+        };
+        deque.subscribe(failing, DIRECT);
+        for (int i = 0; i < 4; i++) {
+            deque.offer(i);
+        }
+        assertEquals(asList(0, 1), failing.received);
+        assertTrue(failing.error instanceof IllegalStateException);
+        deque.subscribe(other, DIRECT);
+        assertEquals(asList(2, 3), other.received);
+    }
+
+    @Test
+    public void testOnSubscribeReturnsBeforeFirstOnNext() throws InterruptedException {
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(4);
+        for (int i = 0; i < 10; i++) {
+            deque.offer(i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean subscribed = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(10);
+        try {
+            deque.subscribe(new AsyncUnrolledDeque.Subscriber<Integer>() {
+                @Override
+                public void onSubscribe(AsyncUnrolledDeque.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    subscribed.set(true);
+                }
+
+                @Override
+                public void onNext(Integer item) {
+                    if (!subscribed.get()) {
+                        overlapped.set(true);
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            }, executor);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertFalse(overlapped.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        AsyncUnrolledDeque<Integer> deque = new AsyncUnrolledDeque<>(16);
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int s = 0; s < 3; s++) {
+                deque.subscribe(new AsyncUnrolledDeque.Subscriber<Integer>() {
+                    private AsyncUnrolledDeque.Subscription subscription;
+
+                    @Override
+                    public void onSubscribe(AsyncUnrolledDeque.Subscription subscription) {
+                        this.subscription = subscription;
+                        subscription.request(7);
+                    }
+
+                    @Override
+                    public void onNext(Integer item) {
+                        assertTrue(received.add(item));
+                        done.countDown();
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                }, executor);
+            }
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                threads[p] = new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        deque.offer(base + i);
+                        if (i % 100 == 0) {
+                            deque.pollFirstAsync().thenAccept(item -> {
+                                assertTrue(received.add(item));
+                                done.countDown();
+                            });
+                        }
+                    }
+                });
+                threads[p].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            assertEquals(producers * perProducer, received.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
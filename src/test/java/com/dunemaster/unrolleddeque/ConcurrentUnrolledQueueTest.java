@@ -0,0 +1,97 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentUnrolledQueueTest {
+
+    @Test
+    public void testEmptyQueue() {
+        ConcurrentUnrolledQueue<Integer> queue = new ConcurrentUnrolledQueue<>(4);
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertFalse(queue.iterator().hasNext());
+        assertThrows(NullPointerException.class, () -> queue.offer(null));
+    }
+
+    @Test
+    public void testFifoOrderAcrossBlocks() {
+        ConcurrentUnrolledQueue<Integer> queue = new ConcurrentUnrolledQueue<>(4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertEquals(10, queue.size());
+        assertEquals(0, queue.peek());
+
+        List<Integer> iterated = new ArrayList<>();
+        for (Integer element : queue) {
+            iterated.add(element);
+        }
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), iterated);
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(4, queue.size());
+        assertEquals(6, queue.peek());
+        queue.add(10);
+        for (int i = 6; i <= 10; i++) {
+            assertEquals(i, queue.remove());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        int producersCount = 3;
+        int consumersCount = 3;
+        int itemsPerProducer = 100_000;
+        ConcurrentUnrolledQueue<Integer> queue = new ConcurrentUnrolledQueue<>(32);
+        AtomicIntegerArray seen = new AtomicIntegerArray(producersCount * itemsPerProducer);
+        CountDownLatch consumed = new CountDownLatch(producersCount * itemsPerProducer);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producersCount; p++) {
+            int offset = p * itemsPerProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < itemsPerProducer; i++) {
+                    queue.offer(offset + i);
+                }
+            }));
+        }
+        for (int c = 0; c < consumersCount; c++) {
+            Thread consumer = new Thread(() -> {
+                while (consumed.getCount() > 0) {
+                    Integer element = queue.poll();
+                    if (element != null) {
+                        seen.incrementAndGet(element);
+                        consumed.countDown();
+                    }
+                }
+            });
+            consumer.setDaemon(true);
+            threads.add(consumer);
+        }
+        threads.forEach(Thread::start);
+        consumed.await();
+
+        for (int i = 0; i < seen.length(); i++) {
+            assertEquals(1, seen.get(i), "element " + i);
+        }
+        assertNull(queue.poll());
+    }
+
+}
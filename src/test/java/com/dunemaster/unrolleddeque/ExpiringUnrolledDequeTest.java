@@ -0,0 +1,95 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExpiringUnrolledDequeTest {
+
+    @Test
+    public void testEmptyDeque() {
+        ExpiringUnrolledDeque<Integer> deque = new ExpiringUnrolledDeque<>();
+        assertEquals(0, deque.expireOlderThan(Long.MAX_VALUE));
+        assertNull(deque.pollFirst());
+        assertNull(deque.peekLast());
+        assertThrows(NoSuchElementException.class, deque::firstTimestamp);
+        assertThrows(NullPointerException.class, () -> deque.addLast(null, 0));
+    }
+
+    @Test
+    public void testExpireInBlockBatches() {
+        List<List<Integer>> batches = new ArrayList<>();
+        AtomicLong clock = new AtomicLong();
+        ExpiringUnrolledDeque<Integer> deque = new ExpiringUnrolledDeque<>(4, 16, clock::get,
+                batch -> batches.add(new ArrayList<>(batch)));
+        // blocks: [_, _, 0, 1] [2, 3, 4, 5] [6, 7, 8, 9]
+        for (int i = 0; i < 10; i++) {
+            clock.set(i * 10);
+            deque.add(i);
+        }
+        assertEquals(0, deque.firstTimestamp());
+        assertEquals(90, deque.lastTimestamp());
+
+        assertEquals(0, deque.expireOlderThan(0));
+        assertEquals(7, deque.expireOlderThan(65));
+        assertEquals(asList(asList(0, 1), asList(2, 3, 4, 5), asList(6)), batches);
+        assertEquals(asList(7, 8, 9), new ArrayList<>(deque));
+        assertEquals(70, deque.firstTimestamp());
+
+        // polling is not expiration
+        assertEquals(7, deque.pollFirst());
+        assertEquals(3, batches.size());
+
+        assertEquals(2, deque.expireOlderThan(1000));
+        assertTrue(deque.isEmpty());
+        deque.addLast(1, 5);
+        assertEquals(1, deque.size());
+        assertEquals(5, deque.firstTimestamp());
+    }
+
+    @Test
+    public void testCallbackMayModifyDeque() {
+        AtomicLong clock = new AtomicLong();
+        List<ExpiringUnrolledDeque<Integer>> holder = new ArrayList<>();
+        // expired elements are retried at the tail with a new timestamp
+        ExpiringUnrolledDeque<Integer> deque = new ExpiringUnrolledDeque<>(4, 16, clock::get,
+                batch -> holder.get(0).addAll(batch));
+        holder.add(deque);
+        for (int i = 0; i < 10; i++) {
+            clock.set(i * 10);
+            deque.add(i);
+        }
+        clock.set(1000);
+        assertEquals(7, deque.expireOlderThan(65));
+        assertEquals(asList(7, 8, 9, 0, 1, 2, 3, 4, 5, 6), new ArrayList<>(deque));
+        assertEquals(70, deque.firstTimestamp());
+        assertEquals(1000, deque.lastTimestamp());
+    }
+
+    @Test
+    public void testExpireStopsAtFirstLiveElement() {
+        ExpiringUnrolledDeque<Integer> deque = new ExpiringUnrolledDeque<>(4, 0, () -> 0, null);
+        for (int i = 0; i < 10; i++) {
+            deque.addLast(i, 100 + i);
+        }
+        // a retried job put back at the head with its original, older timestamp
+        deque.addFirst(-1, 50);
+        // a late element with an old timestamp behind live ones is kept
+        deque.addLast(10, 0);
+        assertEquals(4, deque.expireOlderThan(103));
+        assertEquals(asList(3, 4, 5, 6, 7, 8, 9, 10), new ArrayList<>(deque));
+        assertEquals(10, deque.pollLast());
+        assertEquals(7, deque.expireOlderThan(1000));
+        assertTrue(deque.isEmpty());
+    }
+
+}
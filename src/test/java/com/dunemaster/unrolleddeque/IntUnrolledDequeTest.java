@@ -0,0 +1,107 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntUnrolledDequeTest {
+
+    @Test
+    public void testEmptyDeque() {
+        IntUnrolledDeque deque = new IntUnrolledDeque(4);
+        assertEquals(0, deque.size());
+        assertTrue(deque.isEmpty());
+        assertEquals(OptionalInt.empty(), deque.pollFirst());
+        assertEquals(OptionalInt.empty(), deque.pollLast());
+        assertEquals(-1, deque.pollFirst(-1));
+        assertEquals(-1, deque.peekLast(-1));
+        assertThrows(NoSuchElementException.class, deque::removeFirst);
+        assertThrows(NoSuchElementException.class, deque::getLast);
+        assertFalse(deque.iterator().hasNext());
+        assertEquals(0, deque.toArray().length);
+    }
+
+    @Test
+    public void testAddAndPollAtBothEnds() {
+        IntUnrolledDeque deque = new IntUnrolledDeque(4);
+        for (int i = 1; i <= 10; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i);
+        }
+        assertEquals(20, deque.size());
+        assertEquals(-10, deque.getFirst());
+        assertEquals(10, deque.getLast());
+        assertEquals(OptionalInt.of(-10), deque.peekFirst());
+        assertTrue(deque.contains(-7));
+        assertFalse(deque.contains(0));
+
+        for (int i = 10; i >= 1; i--) {
+            assertEquals(-i, deque.pollFirst(0));
+            assertEquals(OptionalInt.of(i), deque.pollLast());
+        }
+        assertTrue(deque.isEmpty());
+
+        deque.push(5);
+        deque.addLast(6);
+        assertEquals(5, deque.pop());
+        assertEquals(6, deque.removeLast());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void testFifoAcrossManyBlocks() {
+        IntUnrolledDeque deque = new IntUnrolledDeque(6);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                deque.addLast(i);
+            }
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, deque.removeFirst());
+            }
+            assertTrue(deque.isEmpty());
+        }
+    }
+
+    @Test
+    public void testIteratorsAndBulkViews() {
+        IntUnrolledDeque deque = new IntUnrolledDeque(4);
+        for (int i = 0; i < 6; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i - 1);
+        }
+        int[] expected = {-6, -5, -4, -3, -2, -1, 0, 1, 2, 3, 4, 5};
+        assertArrayEquals(expected, deque.toArray());
+        assertArrayEquals(expected, deque.stream().toArray());
+
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        for (int value : expected) {
+            assertEquals(value, iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::nextInt);
+
+        PrimitiveIterator.OfInt descending = deque.descendingIterator();
+        for (int i = expected.length - 1; i >= 0; i--) {
+            assertEquals(expected[i], descending.nextInt());
+        }
+        assertFalse(descending.hasNext());
+
+        int[] sum = {0};
+        deque.forEach(value -> sum[0] += value);
+        assertEquals(-6, sum[0]);
+
+        deque.clear();
+        assertTrue(deque.isEmpty());
+        deque.addLast(1);
+        assertEquals(1, deque.getFirst());
+    }
+
+}
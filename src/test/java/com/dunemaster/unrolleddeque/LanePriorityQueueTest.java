@@ -0,0 +1,116 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LanePriorityQueueTest {
+
+    // the lane is the tens digit
+    private static int laneOf(Integer element) {
+        return element / 10;
+    }
+
+    private static List<Integer> drain(LanePriorityQueue<Integer> queue) {
+        List<Integer> drained = new ArrayList<>();
+        Integer element;
+        while ((element = queue.poll()) != null) {
+            drained.add(element);
+        }
+        return drained;
+    }
+
+    @Test
+    public void testEmptyQueue() {
+        LanePriorityQueue<Integer> queue = new LanePriorityQueue<>(4, LanePriorityQueueTest::laneOf);
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+        assertNull(queue.peek());
+        assertNull(queue.pollLane(2));
+        assertThrows(NullPointerException.class, () -> queue.offer(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.offer(40));
+        assertThrows(IllegalArgumentException.class, () -> new LanePriorityQueue<Integer>(65, LanePriorityQueueTest::laneOf));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LanePriorityQueue<Integer>(new int[]{1, 0}, LanePriorityQueueTest::laneOf));
+    }
+
+    @Test
+    public void testStrictPriority() {
+        LanePriorityQueue<Integer> queue = new LanePriorityQueue<>(4, LanePriorityQueueTest::laneOf);
+        queue.addAll(asList(30, 10, 31, 0, 11, 1, 32));
+        assertEquals(7, queue.size());
+        assertEquals(2, queue.laneSize(1));
+        assertEquals(0, queue.peek());
+        assertEquals(asList(0, 1, 10, 11, 30, 31, 32), new ArrayList<>(queue));
+        assertEquals(0, queue.poll());
+        queue.offer(2);
+        queue.offer(3, 20);
+        assertEquals(asList(1, 2, 10, 11, 30, 31, 32, 20), drain(queue));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testWeightedRounds() {
+        LanePriorityQueue<Integer> queue = new LanePriorityQueue<>(new int[]{3, 2, 1}, LanePriorityQueueTest::laneOf);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+            queue.offer(10 + i);
+            queue.offer(20 + i);
+        }
+        assertEquals(0, queue.peek());
+        assertEquals(asList(0, 1, 2, 10, 11, 20, 3, 4, 12, 13, 21, 14, 22, 23, 24), drain(queue));
+
+        // an empty lane gives its turn to the next lanes, a new round starts when the non-empty ones have used theirs
+        queue.addAll(asList(20, 21, 22));
+        assertEquals(20, queue.poll());
+        queue.offer(0);
+        assertEquals(asList(0, 21, 22), drain(queue));
+
+        // clear starts a new round
+        queue.addAll(asList(0, 1, 2));
+        queue.poll();
+        queue.poll();
+        queue.clear();
+        queue.addAll(asList(0, 1, 2, 3, 4, 10, 11));
+        assertEquals(asList(0, 1, 2, 10, 11, 3, 4), drain(queue));
+    }
+
+    @Test
+    public void testPeekDoesNotStartNewRound() {
+        LanePriorityQueue<Integer> queue = new LanePriorityQueue<>(new int[]{1, 1, 1}, LanePriorityQueueTest::laneOf);
+        queue.offer(0);
+        assertEquals(0, queue.poll());
+        queue.offer(1);
+        // lane 0 has used its weight, a poll now would start a new round
+        assertEquals(1, queue.peek());
+        // lane 2 still has credit in the current round
+        queue.offer(20);
+        assertEquals(asList(20, 1), drain(queue));
+    }
+
+    @Test
+    public void testIteratorRemoveAndClear() {
+        LanePriorityQueue<Integer> queue = new LanePriorityQueue<>(64, e -> e % 64);
+        queue.addAll(asList(63, 0, 127, 5));
+        Iterator<Integer> iterator = queue.iterator();
+        assertEquals(0, iterator.next());
+        iterator.remove();
+        assertEquals(5, queue.peek());
+        assertTrue(queue.remove(5));
+        assertEquals(asList(63, 127), drain(queue));
+
+        queue.addAll(asList(1, 2, 3));
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+
+}
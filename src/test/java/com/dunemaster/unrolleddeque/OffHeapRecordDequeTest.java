@@ -0,0 +1,104 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapRecordDequeTest {
+
+    private static ByteBuffer record(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String pollFirst(OffHeapRecordDeque deque, ByteBuffer dst) {
+        dst.clear();
+        int length = deque.pollFirst(dst);
+        return length < 0 ? null : new String(dst.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static String pollLast(OffHeapRecordDeque deque, ByteBuffer dst) {
+        dst.clear();
+        int length = deque.pollLast(dst);
+        return length < 0 ? null : new String(dst.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testVariableSizeRecordsAtBothEnds() {
+        DirectBlockPool pool = new DirectBlockPool(64, 4);
+        OffHeapRecordDeque deque = new OffHeapRecordDeque(pool, OffHeapRecordDeque.VARIABLE_RECORD_SIZE);
+        ByteBuffer dst = ByteBuffer.allocate(64);
+        assertEquals(-1, deque.pollFirst(dst));
+        assertEquals(-1, deque.firstRecordLength());
+
+        for (int i = 0; i < 20; i++) {
+            deque.addLast(record("tail-" + i));
+            deque.addFirst(record("head-" + i));
+        }
+        assertEquals(40, deque.size());
+        assertEquals(2 * (10 * 6 + 10 * 7), deque.bytes());
+        assertEquals(7, deque.firstRecordLength());
+
+        for (int i = 19; i >= 0; i--) {
+            assertEquals("head-" + i, pollFirst(deque, dst));
+            assertEquals("tail-" + i, pollLast(deque, dst));
+        }
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.bytes());
+        assertEquals(null, pollLast(deque, dst));
+        deque.close();
+        assertTrue(pool.pooledBlocks() > 0);
+    }
+
+    @Test
+    public void testFixedSizeRecordsFifo() {
+        OffHeapRecordDeque deque = new OffHeapRecordDeque(32, 8);
+        ByteBuffer dst = ByteBuffer.allocate(8);
+        for (long i = 0; i < 100; i++) {
+            ByteBuffer src = ByteBuffer.allocate(8);
+            src.putLong(0, i);
+            deque.addLast(src);
+        }
+        assertEquals(100, deque.size());
+        for (long i = 0; i < 100; i++) {
+            dst.clear();
+            assertEquals(8, deque.pollFirst(dst));
+            assertEquals(i, dst.getLong(0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> deque.addLast(new byte[4], 0, 4));
+        assertThrows(NoSuchElementException.class, deque::removeFirst);
+    }
+
+    @Test
+    public void testRecordsFillingWholeBlocks() {
+        OffHeapRecordDeque deque = new OffHeapRecordDeque(24, OffHeapRecordDeque.VARIABLE_RECORD_SIZE);
+        ByteBuffer dst = ByteBuffer.allocate(24);
+        byte[] large = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+        deque.addFirst(large, 0, large.length);
+        deque.addFirst(large, 0, 3);
+        deque.addLast(large, 0, large.length);
+        assertEquals(3, deque.size());
+        assertEquals("012", pollFirst(deque, dst));
+        assertEquals("0123456789abcdef", pollLast(deque, dst));
+        assertEquals("0123456789abcdef", pollLast(deque, dst));
+        assertTrue(deque.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> deque.addLast(new byte[17], 0, 17));
+    }
+
+    @Test
+    public void testTooSmallDestinationKeepsRecord() {
+        OffHeapRecordDeque deque = new OffHeapRecordDeque(64, OffHeapRecordDeque.VARIABLE_RECORD_SIZE);
+        deque.addLast(record("record"));
+        assertThrows(BufferOverflowException.class, () -> deque.pollFirst(ByteBuffer.allocate(3)));
+        assertEquals(1, deque.size());
+        deque.removeLast();
+        assertTrue(deque.isEmpty());
+    }
+
+}
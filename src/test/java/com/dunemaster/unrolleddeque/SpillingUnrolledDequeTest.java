@@ -0,0 +1,144 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpillingUnrolledDequeTest {
+
+    private static final ElementCodec<Integer> INT_CODEC = new ElementCodec<Integer>() {
+        @Override
+        public void encode(Integer element, ByteBuffer target) {
+            target.putInt(element);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer source) {
+            return source.getInt();
+        }
+    };
+
+    private static long filesIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testFifoSpillsInteriorBlocks() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillingUnrolledDeque<Integer> deque = new SpillingUnrolledDeque<>(4, 3, INT_CODEC, directory, 64);
+        int itemsCount = 100;
+        for (int i = 0; i < itemsCount; i++) {
+            deque.addLast(i);
+        }
+        assertEquals(itemsCount, deque.size());
+        assertEquals(3, deque.inMemoryBlocks());
+        assertTrue(deque.spilledBlocks() > 20);
+        assertEquals(1, filesIn(directory));
+
+        List<Integer> iterated = new ArrayList<>();
+        deque.forEach(iterated::add);
+        assertEquals(itemsCount, iterated.size());
+        assertEquals(99, deque.descendingIterator().next());
+
+        for (int i = 0; i < itemsCount; i++) {
+            assertEquals(i, deque.pollFirst());
+            assertTrue(deque.inMemoryBlocks() <= 3);
+        }
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.spilledBlocks());
+
+        deque.close();
+        assertEquals(0, filesIn(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testBothEndsWithPageIn() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        try (SpillingUnrolledDeque<Integer> deque = new SpillingUnrolledDeque<>(4, 2, INT_CODEC, directory, 1024)) {
+            for (int round = 0; round < 3; round++) {
+                for (int i = 1; i <= 30; i++) {
+                    deque.push(-i);
+                    deque.add(i);
+                }
+                assertEquals(2, deque.inMemoryBlocks());
+                Iterator<Integer> iterator = deque.iterator();
+                for (int i = 30; i >= 1; i--) {
+                    assertEquals(-i, iterator.next());
+                }
+                for (int i = 30; i >= 1; i--) {
+                    assertEquals(i, deque.pollLast());
+                    assertEquals(-i, deque.pollFirst());
+                }
+                assertTrue(deque.isEmpty());
+                assertNull(deque.pollFirst());
+                assertEquals(0, deque.spilledBlocks());
+            }
+        }
+        assertEquals(0, filesIn(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testSteadyFifoReusesSpillFile() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        try (SpillingUnrolledDeque<Integer> deque = new SpillingUnrolledDeque<>(4, 3, INT_CODEC, directory, 64)) {
+            int depth = 100;
+            for (int i = 0; i < depth; i++) {
+                deque.addLast(i);
+            }
+            Path spillFile;
+            try (Stream<Path> files = Files.list(directory)) {
+                spillFile = files.findFirst().get();
+            }
+            // 22 spilled blocks of 16 bytes take 6 chunks, allow one more partly used chunk per end
+            for (int i = depth; i < 100_000; i++) {
+                assertEquals(i - depth, deque.pollFirst());
+                deque.addLast(i);
+                assertTrue(Files.size(spillFile) <= 8 * 64);
+            }
+            assertEquals(3, deque.inMemoryBlocks());
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 100_000 - depth; i < 100_000; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, new ArrayList<>(deque));
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testNoSpillWithinBudget() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillingUnrolledDeque<Integer> deque = new SpillingUnrolledDeque<>(4, 10, INT_CODEC, directory, 1024);
+        for (int i = 0; i < 30; i++) {
+            deque.add(i);
+        }
+        assertEquals(0, deque.spilledBlocks());
+        assertEquals(0, filesIn(directory));
+        assertEquals(0, deque.peekFirst());
+        assertEquals(29, deque.getLast());
+        assertFalse(deque.isEmpty());
+        assertThrows(NullPointerException.class, () -> deque.add(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SpillingUnrolledDeque<>(4, 1, INT_CODEC, directory, 1024));
+        deque.close();
+        Files.delete(directory);
+    }
+
+}
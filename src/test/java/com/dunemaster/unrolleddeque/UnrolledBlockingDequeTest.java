@@ -0,0 +1,241 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UnrolledBlockingDequeTest {
+
+    @Test
+    public void testDequeOperations() {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(Integer.MAX_VALUE, 4);
+        assertNull(deque.pollFirst());
+        assertNull(deque.peekLast());
+        assertThrows(NoSuchElementException.class, deque::getFirst);
+        assertThrows(NullPointerException.class, () -> deque.offer(null));
+
+        for (int i = 1; i <= 5; i++) {
+            deque.addLast(i);
+            deque.addFirst(-i);
+        }
+        assertEquals(10, deque.size());
+        assertEquals(-5, deque.peekFirst());
+        assertEquals(5, deque.peekLast());
+        assertTrue(deque.contains(-3));
+        assertFalse(deque.contains(0));
+
+        List<Integer> ascending = new ArrayList<>();
+        deque.iterator().forEachRemaining(ascending::add);
+        assertEquals(asList(-5, -4, -3, -2, -1, 1, 2, 3, 4, 5), ascending);
+        Iterator<Integer> descending = deque.descendingIterator();
+        assertEquals(5, descending.next());
+        assertEquals(4, descending.next());
+
+        assertEquals(-5, deque.pop());
+        assertEquals(5, deque.removeLast());
+        assertEquals(-4, deque.poll());
+        assertEquals(7, deque.size());
+        deque.clear();
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void testCapacity() throws InterruptedException {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(3, 4);
+        assertTrue(deque.offerLast(1));
+        assertTrue(deque.offerFirst(0));
+        deque.put(2);
+        assertEquals(0, deque.remainingCapacity());
+        assertFalse(deque.offer(3));
+        assertFalse(deque.offerFirst(3, 10, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalStateException.class, () -> deque.addLast(3));
+        assertEquals(0, deque.take());
+        assertTrue(deque.offer(3, 10, TimeUnit.MILLISECONDS));
+        assertEquals(asList(1, 2, 3), new ArrayList<>(deque));
+    }
+
+    @Test
+    public void testTimedPollOnEmptyDeque() throws InterruptedException {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>();
+        long start = System.nanoTime();
+        assertNull(deque.pollFirst(20, TimeUnit.MILLISECONDS));
+        assertNull(deque.pollLast(0, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void testTakeWaitsForProducer() throws InterruptedException {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(1);
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 100; i++) {
+                    deque.putLast(i);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, deque.takeFirst());
+        }
+        producer.join();
+    }
+
+    @Test
+    public void testDrainTo() {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(100, 4);
+        for (int i = 0; i < 11; i++) {
+            deque.add(i);
+        }
+        deque.push(-1);
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(0, deque.drainTo(drained, 0));
+        assertEquals(7, deque.drainTo(drained, 7));
+        assertEquals(asList(-1, 0, 1, 2, 3, 4, 5), drained);
+        assertEquals(5, deque.size());
+
+        assertEquals(5, deque.drainTo(drained));
+        assertEquals(12, drained.size());
+        assertEquals(10, drained.get(11));
+        assertTrue(deque.isEmpty());
+
+        // the deque is still usable after being drained
+        deque.add(42);
+        assertEquals(42, deque.peekFirst());
+        assertEquals(42, deque.peekLast());
+    }
+
+    @Test
+    public void testDrainToRejectingCollectionKeepsRemainingElements() {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(100, 4);
+        for (int i = 0; i < 6; i++) {
+            deque.add(i);
+        }
+        List<Integer> target = new ArrayList<Integer>() {
+            @Override
+            public boolean add(Integer e) {
+                if (size() == 2) throw new IllegalStateException();
+                return super.add(e);
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> deque.drainTo(target));
+        assertEquals(asList(0, 1), target);
+        assertEquals(asList(2, 3, 4, 5), new ArrayList<>(deque));
+        assertThrows(IllegalArgumentException.class, () -> deque.drainTo(deque));
+        assertEquals(0, new UnrolledBlockingDeque<Integer>().drainTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void testDrainToKeepsCapacityForRejectedElements() {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(4, 4);
+        for (int i = 0; i < 4; i++) {
+            deque.add(i);
+        }
+        List<Integer> target = new ArrayList<Integer>() {
+            @Override
+            public boolean add(Integer e) {
+                // a producer tries to take the space freed by the drain
+                assertFalse(deque.offerLast(-1));
+                assertEquals(0, deque.remainingCapacity());
+                if (size() == 1) throw new IllegalStateException();
+                return super.add(e);
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> deque.drainTo(target));
+        assertEquals(asList(0), target);
+        assertEquals(asList(1, 2, 3), new ArrayList<>(deque));
+        assertEquals(1, deque.remainingCapacity());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        UnrolledBlockingDeque<Integer> deque = new UnrolledBlockingDeque<>(10, 4);
+        deque.addAll(asList(1, 2, 3, 2, 1));
+        Iterator<Integer> iterator = deque.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        iterator.remove();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertEquals(asList(1, 3, 2, 1), new ArrayList<>(deque));
+
+        Iterator<Integer> descending = deque.descendingIterator();
+        assertEquals(1, descending.next());
+        descending.remove();
+        assertEquals(asList(1, 3, 2), new ArrayList<>(deque));
+        assertEquals(7, deque.remainingCapacity());
+
+        // the element was removed in the meantime
+        Iterator<Integer> stale = deque.descendingIterator();
+        assertEquals(2, stale.next());
+        assertTrue(deque.removeLastOccurrence(2));
+        stale.remove();
+        assertFalse(deque.removeLastOccurrence(99));
+        assertEquals(asList(1, 3), new ArrayList<>(deque));
+    }
+
+    @Test
+    public void testThreadPoolExecutorPurge() throws InterruptedException {
+        UnrolledBlockingDeque<Runnable> queue = new UnrolledBlockingDeque<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, queue);
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(() -> { }));
+        }
+        assertEquals(10, queue.size());
+        for (int i = 0; i < 10; i += 2) {
+            futures.get(i).cancel(false);
+        }
+        executor.purge();
+        assertEquals(5, queue.size());
+        blocker.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsThreadPoolExecutorQueue() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 1, TimeUnit.SECONDS,
+                new UnrolledBlockingDeque<>());
+        int tasksCount = 1000;
+        CountDownLatch done = new CountDownLatch(tasksCount);
+        AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < tasksCount; i++) {
+            executor.execute(() -> {
+                counter.incrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(tasksCount, counter.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+}
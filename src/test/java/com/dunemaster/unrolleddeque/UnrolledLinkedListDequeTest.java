@@ -3,9 +3,24 @@ package com.dunemaster.unrolleddeque;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -573,4 +588,962 @@ public class UnrolledLinkedListDequeTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSpareBlocksReusedAcrossBlockBoundary() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 2);
+        for (int i = 0; i < 14; i++) {
+            list.add(i);
+        }
+        assertEquals(0, list.spareBlockCount());
+
+        // drop 3 whole blocks from the head, only 2 of them are retained
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i, list.pollFirst());
+        }
+        assertEquals(2, list.spareBlockCount());
+
+        // growing at both ends takes the spare blocks back
+        for (int i = 1; i <= 4; i++) {
+            list.push(-i);
+            list.add(13 + i);
+        }
+        assertEquals(0, list.spareBlockCount());
+        assertEquals(10, list.size());
+        for (int i = 4; i >= 1; i--) {
+            assertEquals(-i, list.pollFirst());
+        }
+        for (int i = 12; i <= 17; i++) {
+            assertEquals(i, list.pollFirst());
+        }
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testSpareBlocksDisabled() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 0);
+        for (int i = 0; i < 20; i++) {
+            list.add(i);
+        }
+        for (int i = 19; i >= 0; i--) {
+            assertEquals(i, list.pollLast());
+        }
+        assertEquals(0, list.spareBlockCount());
+        assertThrows(IllegalArgumentException.class, () -> new UnrolledLinkedListDeque<>(4, -1));
+    }
+
+    @Test
+    public void testGetAndSet() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+        int itemsCount = 15;
+        for (int i = 1; i <= itemsCount; i++) {
+            list.push(-i);
+            list.add(i);
+        }
+        list.pollFirst();
+        list.pollLast();
+
+        // -14 ... -1, 1 ... 14
+        for (int index = 0; index < 14; index++) {
+            assertEquals(index - 14, list.get(index));
+            assertEquals(index + 1, list.get(index + 14));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(28));
+
+        for (int index = 0; index < list.size(); index++) {
+            assertEquals(list.get(index), list.set(index, index * 10));
+        }
+        int expected = 0;
+        for (Integer element : list) {
+            assertEquals(expected * 10, element);
+            expected++;
+        }
+        assertEquals(0, list.peekFirst());
+        assertEquals(270, list.peekLast());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(28, 0));
+    }
+
+    @Test
+    public void testRemoveAtEveryPosition() {
+        for (int headOffset = 0; headOffset < 4; headOffset++) {
+            for (int itemsCount = 1; itemsCount <= 13; itemsCount++) {
+                for (int removed = 0; removed < itemsCount; removed++) {
+                    UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+                    List<Integer> expected = new ArrayList<>();
+                    for (int i = 0; i < headOffset; i++) {
+                        list.push(-1);
+                    }
+                    for (int i = 0; i < itemsCount; i++) {
+                        list.add(i);
+                        expected.add(i);
+                    }
+                    for (int i = 0; i < headOffset; i++) {
+                        list.pollFirst();
+                    }
+
+                    assertTrue(list.remove(removed));
+                    expected.remove((Integer) removed);
+                    assertDequeEquals(expected, list);
+                    // both ends still work after the shift
+                    list.push(100);
+                    list.add(200);
+                    expected.add(0, 100);
+                    expected.add(200);
+                    assertDequeEquals(expected, list);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveFirstAndLastOccurrence() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        for (int i = 0; i < 10; i++) {
+            list.add(i % 3);
+        }
+        list.add(null);
+        // 0 1 2 0 1 2 0 1 2 0 null
+        assertTrue(list.removeFirstOccurrence(1));
+        assertTrue(list.removeLastOccurrence(2));
+        assertTrue(list.removeFirstOccurrence(null));
+        assertFalse(list.removeFirstOccurrence(null));
+        assertFalse(list.removeLastOccurrence(7));
+        assertFalse(list.remove(7));
+        assertDequeEquals(asList(0, 2, 0, 1, 2, 0, 1, 0), list);
+
+        while (list.remove((Integer) 0)) {
+        }
+        assertDequeEquals(asList(2, 1, 2, 1), list);
+    }
+
+    @Test
+    public void testRemoveAbsentOccurrenceWithHeadAtBlockStart() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        // blocks: [2, 1, _, _]
+        list.addFirst(1);
+        list.addFirst(2);
+        assertFalse(list.removeLastOccurrence(99));
+        assertFalse(list.removeFirstOccurrence(99));
+        for (int i = 3; i <= 6; i++) {
+            list.addFirst(i);
+        }
+        // blocks: [6, 5, 4, 3] [2, 1, _, _]
+        assertFalse(list.removeLastOccurrence(99));
+        assertTrue(list.removeLastOccurrence(6));
+        assertDequeEquals(asList(5, 4, 3, 2, 1), list);
+    }
+
+    @Test
+    public void testRemoveReleasesEmptiedBlocks() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        for (int i = 0; i < 16; i++) {
+            list.add(i);
+        }
+        for (int i = 1; i < 15; i++) {
+            assertTrue(list.remove(i));
+        }
+        assertDequeEquals(asList(0, 15), list);
+        assertTrue(list.spareBlockCount() >= 3);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            list.add(i);
+            if (i % 3 != 0) {
+                expected.add(i);
+            }
+        }
+        Iterator<Integer> iterator = list.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        while (iterator.hasNext()) {
+            if (iterator.next() % 3 == 0) {
+                iterator.remove();
+                assertThrows(IllegalStateException.class, iterator::remove);
+            }
+        }
+        assertDequeEquals(expected, list);
+
+        Iterator<Integer> descending = list.descendingIterator();
+        while (descending.hasNext()) {
+            int element = descending.next();
+            if (element % 2 == 0) {
+                descending.remove();
+                expected.remove((Integer) element);
+            }
+        }
+        assertDequeEquals(expected, list);
+
+        Iterator<Integer> all = list.iterator();
+        while (all.hasNext()) {
+            all.next();
+            all.remove();
+        }
+        assertTrue(list.isEmpty());
+        list.add(1);
+        list.push(0);
+        assertDequeEquals(asList(0, 1), list);
+    }
+
+    @Test
+    public void testSpliteratorSplitsAtBlockBoundaries() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            list.push(-1);
+        }
+        for (int i = 0; i < 23; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+        for (int i = 0; i < 3; i++) {
+            list.pollFirst();
+        }
+        // the head block holds 0 and 1, then blocks of 4
+
+        Spliterator<Integer> suffix = list.spliterator();
+        assertEquals(Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, suffix.characteristics());
+        assertEquals(23, suffix.estimateSize());
+        Spliterator<Integer> prefix = suffix.trySplit();
+        assertEquals(10, prefix.estimateSize());
+        assertEquals(13, suffix.estimateSize());
+
+        List<Integer> collected = new ArrayList<>();
+        assertTrue(prefix.tryAdvance(collected::add));
+        Spliterator<Integer> prefixOfPrefix = prefix.trySplit();
+        assertEquals(1, prefixOfPrefix.estimateSize());
+        prefixOfPrefix.forEachRemaining(collected::add);
+        prefix.forEachRemaining(collected::add);
+        assertFalse(prefix.tryAdvance(collected::add));
+        suffix.forEachRemaining(collected::add);
+        assertEquals(expected, collected);
+
+        Spliterator<Integer> singleBlock = new UnrolledLinkedListDeque<Integer>(4).spliterator();
+        assertNull(singleBlock.trySplit());
+        list.clear();
+        assertNull(list.spliterator().trySplit());
+        assertEquals(0, list.spliterator().estimateSize());
+    }
+
+    @Test
+    public void testParallelStream() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(8);
+        for (int i = 0; i < 10_000; i++) {
+            list.add(i);
+        }
+        assertEquals(10_000 * 9_999 / 2, list.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(list.stream().collect(Collectors.toList()),
+                list.parallelStream().collect(Collectors.toList()));
+        assertEquals(10_000, list.parallelStream().count());
+    }
+
+    @Test
+    public void testBulkAdd() {
+        for (int headOffset = 0; headOffset < 4; headOffset++) {
+            UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < headOffset; i++) {
+                list.add(-1);
+                list.pollFirst();
+            }
+            assertFalse(list.addAll(new ArrayList<>()));
+            assertTrue(list.addAll(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)));
+            expected.addAll(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+            assertTrue(list.addAll(new LinkedList<>(asList(10, 11))));
+            expected.addAll(asList(10, 11));
+            assertTrue(list.addAllFirst(asList(-9, -8, -7, -6, -5, -4, -3, -2, -1)));
+            expected.addAll(0, asList(-9, -8, -7, -6, -5, -4, -3, -2, -1));
+            Integer[] source = {100, 101, 102, 103, 104, 105, 106};
+            list.addAll(source, 2, 5);
+            expected.addAll(asList(102, 103, 104, 105, 106));
+            list.addAllFirst(source, 0, 6);
+            expected.addAll(0, asList(100, 101, 102, 103, 104, 105));
+            list.addAllFirst(source, 7, 0);
+            assertDequeEquals(expected, list);
+
+            list.push(-100);
+            list.add(200);
+            expected.add(0, -100);
+            expected.add(200);
+            assertDequeEquals(expected, list);
+            assertThrows(IndexOutOfBoundsException.class, () -> list.addAll(source, 3, 5));
+            assertThrows(IndexOutOfBoundsException.class, () -> list.addAllFirst(source, -1, 1));
+        }
+
+        UnrolledLinkedListDeque<Integer> empty = new UnrolledLinkedListDeque<>(4);
+        empty.addAllFirst(asList(1, 2, 3));
+        assertDequeEquals(asList(1, 2, 3), empty);
+    }
+
+    @Test
+    public void testBulkPoll() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        Integer[] dest = new Integer[8];
+        assertEquals(0, list.pollFirst(8, dest));
+        for (int i = 0; i < 20; i++) {
+            list.add(i);
+        }
+        assertEquals(6, list.pollFirst(6, dest));
+        assertEquals(asList(0, 1, 2, 3, 4, 5), asList(dest).subList(0, 6));
+        assertEquals(7, list.pollLast(7, dest));
+        assertEquals(asList(19, 18, 17, 16, 15, 14, 13), asList(dest).subList(0, 7));
+        assertDequeEquals(asList(6, 7, 8, 9, 10, 11, 12), list);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.pollLast(9, dest));
+
+        Arrays.fill(dest, null);
+        assertEquals(7, list.pollLast(8, dest));
+        assertEquals(asList(12, 11, 10, 9, 8, 7, 6, null), asList(dest));
+        assertTrue(list.isEmpty());
+        list.add(1);
+        list.push(0);
+        assertDequeEquals(asList(0, 1), list);
+        assertEquals(2, list.pollFirst(8, dest));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testPresizedDeque() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 2, 10);
+        assertEquals(3, list.spareBlockCount());
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        // the head block got only half, one block is left for growing at the head
+        assertEquals(1, list.spareBlockCount());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, list.pollFirst());
+        }
+        assertEquals(2, list.spareBlockCount());
+        assertEquals(0, new UnrolledLinkedListDeque<Integer>(4, 2, 0).spareBlockCount());
+        assertThrows(IllegalArgumentException.class, () -> new UnrolledLinkedListDeque<Integer>(4, 2, -1));
+    }
+
+    @Test
+    public void testToArrayFromBothSides() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        assertEquals(0, list.toArray().length);
+        assertEquals(0, list.toArray(new Integer[0]).length);
+        for (int i = 1; i <= 7; i++) {
+            list.push(-i);
+            list.add(i);
+        }
+        Integer[] expected = {-7, -6, -5, -4, -3, -2, -1, 1, 2, 3, 4, 5, 6, 7};
+        Assertions.assertArrayEquals(expected, list.toArray());
+
+        Integer[] tooSmall = new Integer[3];
+        Integer[] allocated = list.toArray(tooSmall);
+        Assertions.assertArrayEquals(expected, allocated);
+        assertEquals(Integer[].class, allocated.getClass());
+
+        Integer[] larger = new Integer[16];
+        Arrays.fill(larger, 42);
+        assertTrue(larger == list.toArray(larger));
+        Assertions.assertArrayEquals(expected, Arrays.copyOf(larger, 14));
+        assertNull(larger[14]);
+        assertEquals(42, larger[15]);
+
+        Assertions.assertArrayEquals(expected, list.toArray(Integer[]::new));
+        assertThrows(ArrayStoreException.class, () -> list.toArray(new String[14]));
+    }
+
+    @Test
+    public void testForEachAndForEachRemaining() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+        list.push(-1);
+        expected.add(0, -1);
+
+        List<Integer> forEach = new ArrayList<>();
+        list.forEach(forEach::add);
+        assertEquals(expected, forEach);
+
+        Iterator<Integer> iterator = list.iterator();
+        List<Integer> remaining = new ArrayList<>();
+        remaining.add(iterator.next());
+        remaining.add(iterator.next());
+        iterator.forEachRemaining(remaining::add);
+        assertEquals(expected, remaining);
+        assertFalse(iterator.hasNext());
+        iterator.remove();
+        expected.remove(expected.size() - 1);
+
+        Iterator<Integer> descending = list.descendingIterator();
+        List<Integer> descendingRemaining = new ArrayList<>();
+        descendingRemaining.add(0, descending.next());
+        descending.forEachRemaining(e -> descendingRemaining.add(0, e));
+        assertEquals(expected, descendingRemaining);
+        descending.remove();
+        expected.remove(0);
+        assertDequeEquals(expected, list);
+    }
+
+    @Test
+    public void testCursor() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        UnrolledLinkedListDeque<Integer>.Cursor cursor = list.cursor();
+        assertFalse(cursor.hasNext());
+        assertThrows(NoSuchElementException.class, cursor::next);
+        for (int i = 0; i < 9; i++) {
+            list.add(i);
+            list.push(-i);
+        }
+        List<Integer> expected = new ArrayList<>(list);
+
+        for (int scan = 0; scan < 2; scan++) {
+            List<Integer> ascending = new ArrayList<>();
+            cursor.resetAscending();
+            while (cursor.hasNext()) {
+                ascending.add(cursor.next());
+            }
+            assertEquals(expected, ascending);
+
+            List<Integer> descending = new ArrayList<>();
+            cursor.resetDescending();
+            while (cursor.hasNext()) {
+                descending.add(0, cursor.next());
+            }
+            assertEquals(expected, descending);
+            assertThrows(NoSuchElementException.class, cursor::next);
+        }
+    }
+
+    @Test
+    public void testContainsScansBlocks() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        assertFalse(list.contains(1));
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        list.push(null);
+        assertTrue(list.contains(null));
+        assertTrue(list.contains(9));
+        assertFalse(list.contains(10));
+        assertTrue(list.containsAll(asList(0, 5, 9, null)));
+        assertFalse(list.containsAll(asList(0, 5, 10)));
+    }
+
+    @Test
+    public void testAdaptiveBlockSizes() {
+        UnrolledLinkedListDeque<Integer> list = UnrolledLinkedListDeque.adaptive(4, 64);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+        assertEquals(64, list.tailBlockLength());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, list.get(i));
+        }
+        for (int i = 0; i < 990; i++) {
+            assertEquals(i, list.pollFirst());
+        }
+        for (int i = 1000; i < 1064; i++) {
+            list.add(i);
+        }
+        // the deque drained before these elements needed a new block, so it is small again
+        assertTrue(list.tailBlockLength() <= 16);
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(990 + i, list.get(i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> UnrolledLinkedListDeque.adaptive(8, 4));
+        assertThrows(IllegalArgumentException.class, () -> UnrolledLinkedListDeque.adaptive(3, 64));
+    }
+
+    @Test
+    public void testAdaptiveBlockSizesRandomOperations() {
+        Random random = new Random(42);
+        UnrolledLinkedListDeque<Integer> list = UnrolledLinkedListDeque.adaptive(2, 32);
+        ArrayDeque<Integer> reference = new ArrayDeque<>();
+        Integer[] batch = {-1, -2, -3, -4, -5, -6, -7};
+        Integer[] dest = new Integer[7];
+        for (int step = 0; step < 20_000; step++) {
+            // drift towards growing for the first half and shrinking for the second
+            boolean grow = random.nextInt(100) < (step < 10_000 ? 60 : 35);
+            int operation = random.nextInt(4);
+            if (grow) {
+                if (operation == 0) {
+                    list.addFirst(step);
+                    reference.addFirst(step);
+                } else if (operation == 1) {
+                    list.addLast(step);
+                    reference.addLast(step);
+                } else if (operation == 2) {
+                    list.addAll(batch, 0, 7);
+                    reference.addAll(asList(batch));
+                } else {
+                    list.addAllFirst(batch, 0, 7);
+                    for (int i = 6; i >= 0; i--) {
+                        reference.addFirst(batch[i]);
+                    }
+                }
+            } else if (!reference.isEmpty()) {
+                if (operation == 0) {
+                    assertEquals(reference.pollFirst(), list.pollFirst());
+                } else if (operation == 1) {
+                    assertEquals(reference.pollLast(), list.pollLast());
+                } else if (operation == 2) {
+                    int count = list.pollFirst(7, dest);
+                    for (int i = 0; i < count; i++) {
+                        assertEquals(reference.pollFirst(), dest[i]);
+                    }
+                } else {
+                    Integer removed = new ArrayList<>(reference).get(random.nextInt(reference.size()));
+                    assertEquals(reference.removeFirstOccurrence(removed), list.removeFirstOccurrence(removed));
+                }
+            }
+            if (step % 1000 == 0) {
+                assertDequeEquals(new ArrayList<>(reference), list);
+            }
+        }
+        assertDequeEquals(new ArrayList<>(reference), list);
+        Assertions.assertArrayEquals(reference.toArray(), list.toArray());
+    }
+
+    @Test
+    public void testFootprint() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 1);
+        assertEquals(0, list.blockCount());
+        assertEquals(0, list.allocatedSlots());
+        assertEquals(0, list.estimatedShallowBytes());
+        assertEquals(0.0, list.headBlockOccupancy());
+        assertEquals(0.0, list.tailBlockOccupancy());
+
+        list.add(0);
+        assertEquals(1, list.blockCount());
+        assertEquals(4, list.allocatedSlots());
+        assertEquals(0.25, list.headBlockOccupancy());
+        assertEquals(0.25, list.tailBlockOccupancy());
+
+        // blocks: [_, _, 0, 1] [2, 3, 4, 5] [6, _, _, _]
+        for (int i = 1; i < 7; i++) {
+            list.add(i);
+        }
+        assertEquals(3, list.blockCount());
+        assertEquals(12, list.allocatedSlots());
+        assertEquals(0.5, list.headBlockOccupancy());
+        assertEquals(0.25, list.tailBlockOccupancy());
+        assertEquals(3 * (32 + 16 + 4 * 4), list.estimatedShallowBytes());
+
+        list.pollLast();
+        list.pollLast();
+        // one block released to the spare cache, still counted in the estimate
+        assertEquals(2, list.blockCount());
+        assertEquals(8, list.allocatedSlots());
+        assertEquals(1, list.spareBlockCount());
+        assertEquals(0.75, list.tailBlockOccupancy());
+        assertEquals(3 * (32 + 16 + 4 * 4), list.estimatedShallowBytes());
+
+        list.clear();
+        assertEquals(1, list.blockCount());
+        assertEquals(4, list.allocatedSlots());
+
+        UnrolledLinkedListDeque<Integer> adaptive = UnrolledLinkedListDeque.adaptive(4, 64);
+        for (int i = 0; i < 1000; i++) {
+            adaptive.add(i);
+        }
+        long slots = adaptive.allocatedSlots();
+        assertTrue(slots >= 1000 && slots < 1064);
+        assertTrue(adaptive.blockCount() < 1000 / 4);
+    }
+
+    @Test
+    public void testListener() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 1);
+        UnrolledDequeCounters counters = new UnrolledDequeCounters();
+        list.setListener(counters);
+        // blocks: [_, _, 0, 1] [2, 3, 4, 5] [6, 7, 8, 9]
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        assertEquals(3, counters.blocksAllocated());
+        assertEquals(0, counters.blocksReused());
+        assertEquals(6, counters.highWaterMark());
+
+        for (int i = 0; i < 8; i++) {
+            list.pollLast();
+        }
+        assertEquals(2, counters.blocksReleased());
+        assertEquals(1, counters.blocksKept());
+
+        list.add(2);
+        assertEquals(4, counters.blocksAllocated());
+        assertEquals(1, counters.blocksReused());
+        assertEquals(6, counters.highWaterMark());
+
+        list.setListener(UnrolledDequeListener.NO_OP);
+        for (int i = 3; i < 20; i++) {
+            list.add(i);
+        }
+        assertEquals(4, counters.blocksAllocated());
+        assertThrows(NullPointerException.class, () -> list.setListener(null));
+    }
+
+    @Test
+    public void testListenerCountsMatchBlockCountAfterClear() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 1);
+        UnrolledDequeCounters counters = new UnrolledDequeCounters();
+        list.setListener(counters);
+        list.clear();
+        assertEquals(list.blockCount(), counters.blocksAllocated() - counters.blocksReleased());
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10; i++) {
+                list.addLast(i);
+                list.addFirst(-i);
+            }
+            list.pollFirst();
+            list.clear();
+            assertEquals(1, list.blockCount());
+            assertEquals(list.blockCount(), counters.blocksAllocated() - counters.blocksReleased());
+        }
+        list.add(1);
+        assertEquals(list.blockCount(), counters.blocksAllocated() - counters.blocksReleased());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            list.add(i);
+            list.push(-i);
+            expected.add(i);
+            expected.add(0, -i);
+        }
+        list.add(null);
+        expected.add(null);
+
+        UnrolledLinkedListDeque<Integer> copy = roundTrip(list);
+        assertEquals(expected, new ArrayList<>(copy));
+        assertEquals(expected.size(), copy.size());
+        copy.push(100);
+        copy.add(200);
+        assertEquals(100, copy.pollFirst());
+        assertEquals(200, copy.pollLast());
+
+        assertTrue(roundTrip(new UnrolledLinkedListDeque<Integer>()).isEmpty());
+        UnrolledLinkedListDeque<Integer> adaptive = UnrolledLinkedListDeque.adaptive(4, 64);
+        for (int i = 0; i < 1000; i++) {
+            adaptive.add(i);
+        }
+        UnrolledLinkedListDeque<Integer> adaptiveCopy = roundTrip(adaptive);
+        assertEquals(new ArrayList<>(adaptive), new ArrayList<>(adaptiveCopy));
+        assertEquals(64, adaptiveCopy.tailBlockLength());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    public void testClone() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        UnrolledLinkedListDeque<Integer> emptyCopy = list.clone();
+        emptyCopy.add(1);
+        assertTrue(list.isEmpty());
+
+        for (int i = 0; i < 11; i++) {
+            list.add(i);
+        }
+        list.pollLast();
+        list.pollLast();
+        list.setListener(new UnrolledDequeCounters());
+        assertEquals(1, list.spareBlockCount());
+        UnrolledLinkedListDeque<Integer> copy = list.clone();
+        assertEquals(0, copy.spareBlockCount());
+        assertEquals(list.blockCount(), copy.blockCount());
+        assertDequeEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8), copy);
+
+        copy.set(0, 100);
+        copy.add(9);
+        copy.push(-1);
+        list.pollFirst();
+        assertDequeEquals(asList(1, 2, 3, 4, 5, 6, 7, 8), list);
+        assertDequeEquals(asList(-1, 100, 1, 2, 3, 4, 5, 6, 7, 8, 9), copy);
+        copy.clear();
+        assertEquals(8, list.size());
+    }
+
+    @Test
+    public void testSnapshot() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        Deque<Integer> empty = list.snapshot();
+        for (int i = 0; i < 14; i++) {
+            list.add(i);
+        }
+        Deque<Integer> snapshot = list.snapshot();
+        List<Integer> expected = new ArrayList<>(list);
+
+        list.push(-1);
+        list.add(14);
+        list.set(6, 100);
+        list.removeFirstOccurrence(8);
+        list.removeLastOccurrence(3);
+        for (int i = 0; i < 5; i++) {
+            list.pollFirst();
+            list.pollLast();
+        }
+        list.clear();
+        list.add(42);
+
+        assertSnapshotEquals(emptyList(), empty);
+        assertSnapshotEquals(expected, snapshot);
+        assertEquals(0, snapshot.getFirst());
+        assertEquals(13, snapshot.getLast());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(1));
+        assertThrows(UnsupportedOperationException.class, snapshot::pollFirst);
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.iterator().remove());
+        assertThrows(NoSuchElementException.class, empty::getFirst);
+    }
+
+    @Test
+    public void testOlderSnapshotInvalidated() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        for (int i = 0; i < 14; i++) {
+            list.add(i);
+        }
+        Deque<Integer> older = list.snapshot();
+        list.set(6, 100);
+        Deque<Integer> newer = list.snapshot();
+        // the middle block was already copied for the older snapshot, writing it again loses that copy
+        list.set(6, 200);
+        assertSnapshotEquals(asList(0, 1, 2, 3, 4, 5, 100, 7, 8, 9, 10, 11, 12, 13), newer);
+        assertThrows(ConcurrentModificationException.class, () -> new ArrayList<>(older));
+    }
+
+    @Test
+    public void testSnapshotSurvivesBlockReuse() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4, 8);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            list.add(i);
+            expected.add(i);
+        }
+        Deque<Integer> snapshot = list.snapshot();
+        list.clear();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20; i++) {
+                list.add(-i);
+            }
+            while (!list.isEmpty()) {
+                list.pollFirst();
+            }
+        }
+        assertSnapshotEquals(expected, snapshot);
+    }
+
+    @Test
+    public void testDroppedSnapshotDoesNotRetainElements() throws InterruptedException {
+        UnrolledLinkedListDeque<Object> list = new UnrolledLinkedListDeque<>(8);
+        List<WeakReference<Object>> polled = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new Object());
+        }
+        Deque<Object> snapshot = list.snapshot();
+        for (int i = 0; i < 90; i++) {
+            polled.add(new WeakReference<>(list.pollFirst()));
+        }
+        assertEquals(100, snapshot.size());
+        snapshot = null;
+        for (int i = 0; i < 50 && polled.stream().anyMatch(reference -> reference.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(0, polled.stream().filter(reference -> reference.get() != null).count());
+        assertEquals(10, list.size());
+    }
+
+    @Test
+    public void testSnapshotsRandomOps() {
+        Random random = new Random(19);
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(8);
+        List<List<Integer>> expected = new ArrayList<>();
+        List<Deque<Integer>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            int op = random.nextInt(10);
+            if (op < 3) {
+                list.addLast(i);
+            } else if (op < 5) {
+                list.addFirst(i);
+            } else if (op == 5) {
+                list.pollFirst();
+            } else if (op == 6) {
+                list.pollLast();
+            } else if (op == 7 && !list.isEmpty()) {
+                list.set(random.nextInt(list.size()), -i);
+            } else if (op == 8 && !list.isEmpty()) {
+                list.removeFirstOccurrence(list.get(random.nextInt(list.size())));
+            } else if (random.nextInt(10) == 0) {
+                expected.add(new ArrayList<>(list));
+                snapshots.add(list.snapshot());
+            }
+        }
+        assertSnapshotEquals(expected.get(expected.size() - 1), snapshots.get(snapshots.size() - 1));
+        for (int i = 0; i < snapshots.size(); i++) {
+            try {
+                assertSnapshotEquals(expected.get(i), snapshots.get(i));
+            } catch (ConcurrentModificationException e) {
+                // a later snapshot rewrote one of its blocks
+            }
+        }
+    }
+
+    @Test
+    public void testEvicting() {
+        List<Integer> evicted = new ArrayList<>();
+        UnrolledLinkedListDeque<Integer> list = UnrolledLinkedListDeque.evicting(4, 5, evicted::add);
+        assertEquals(5, list.capacity());
+        for (int i = 0; i < 8; i++) {
+            list.addLast(i);
+        }
+        assertDequeEquals(asList(3, 4, 5, 6, 7), list);
+        assertEquals(asList(0, 1, 2), evicted);
+
+        list.addFirst(-1);
+        list.push(-2);
+        assertTrue(list.offerFirst(-3));
+        assertDequeEquals(asList(-3, -2, -1, 3, 4), list);
+        assertEquals(asList(0, 1, 2, 7, 6, 5), evicted);
+
+        list.pollFirst();
+        list.addLast(8);
+        assertDequeEquals(asList(-2, -1, 3, 4, 8), list);
+        assertEquals(6, evicted.size());
+
+        list.addAll(asList(9, 10, 11));
+        assertDequeEquals(asList(4, 8, 9, 10, 11), list);
+        list.addAllFirst(asList(20, 21));
+        assertDequeEquals(asList(20, 21, 4, 8, 9), list);
+        assertEquals(asList(0, 1, 2, 7, 6, 5, -2, -1, 3, 11, 10), evicted);
+
+        assertEquals(Integer.MAX_VALUE, new UnrolledLinkedListDeque<Integer>(4).capacity());
+        assertThrows(IllegalArgumentException.class, () -> UnrolledLinkedListDeque.evicting(4, 0));
+    }
+
+    @Test
+    public void testEvictingReusesBlocks() {
+        UnrolledLinkedListDeque<Integer> window = UnrolledLinkedListDeque.evicting(4, 10);
+        UnrolledDequeCounters counters = new UnrolledDequeCounters();
+        for (int i = 0; i < 1_000; i++) {
+            if (i == 100) {
+                // once the window has slid in both directions, every block comes from the spare blocks
+                window.setListener(counters);
+            }
+            if (i % 100 < 50) {
+                window.addLast(i);
+            } else {
+                window.addFirst(i);
+            }
+        }
+        assertEquals(10, window.size());
+        assertTrue(counters.blocksReused() > 0);
+        assertEquals(counters.blocksAllocated(), counters.blocksReused());
+    }
+
+    @Test
+    public void testConsumeSlices() {
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(4);
+        assertEquals(0, list.firstSliceLength());
+        assertEquals(0, list.lastSliceLength());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.consumeFirst(1));
+
+        // blocks: [_, _, 0, 1] [2, 3, 4, 5] [6, 7, 8, 9]
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        Object[] first = list.firstSliceArray();
+        assertEquals(2, list.firstSliceOffset());
+        assertEquals(2, list.firstSliceLength());
+        assertEquals(0, first[2]);
+        assertEquals(1, first[3]);
+        list.consumeFirst(1);
+        assertEquals(1, list.firstSliceLength());
+        assertNull(first[2]);
+        list.consumeFirst(1);
+        assertEquals(0, list.firstSliceOffset());
+        assertEquals(4, list.firstSliceLength());
+        assertEquals(2, list.firstSliceArray()[0]);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.consumeFirst(5));
+
+        Object[] last = list.lastSliceArray();
+        assertEquals(0, list.lastSliceOffset());
+        assertEquals(4, list.lastSliceLength());
+        assertEquals(9, last[3]);
+        list.consumeLast(4);
+        assertNull(last[0]);
+        assertDequeEquals(asList(2, 3, 4, 5), list);
+
+        // a single block is both the first and the last slice
+        list.consumeLast(1);
+        list.consumeFirst(1);
+        assertEquals(1, list.lastSliceOffset());
+        assertEquals(2, list.lastSliceLength());
+        assertEquals(2, list.firstSliceLength());
+        list.consumeFirst(2);
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.firstSliceLength());
+        list.add(42);
+        assertDequeEquals(singletonList(42), list);
+    }
+
+    @Test
+    public void testConsumeSlicesMatchesPolling() {
+        Random random = new Random(24);
+        UnrolledLinkedListDeque<Integer> list = new UnrolledLinkedListDeque<>(8);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        for (int i = 0; i < 5_000; i++) {
+            if (random.nextInt(3) > 0) {
+                list.addLast(i);
+                expected.addLast(i);
+            } else if (random.nextBoolean()) {
+                int n = random.nextInt(list.firstSliceLength() + 1);
+                for (int j = 0; j < n; j++) {
+                    assertEquals(expected.pollFirst(), list.firstSliceArray()[list.firstSliceOffset() + j]);
+                }
+                list.consumeFirst(n);
+            } else {
+                int n = random.nextInt(list.lastSliceLength() + 1);
+                int end = list.lastSliceOffset() + list.lastSliceLength();
+                for (int j = 1; j <= n; j++) {
+                    assertEquals(expected.pollLast(), list.lastSliceArray()[end - j]);
+                }
+                list.consumeLast(n);
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertDequeEquals(new ArrayList<>(expected), list);
+    }
+
+    private static void assertSnapshotEquals(List<Integer> expected, Deque<Integer> snapshot) {
+        assertEquals(expected.size(), snapshot.size());
+        assertEquals(expected, new ArrayList<>(snapshot));
+        List<Integer> descending = new ArrayList<>();
+        snapshot.descendingIterator().forEachRemaining(e -> descending.add(0, e));
+        assertEquals(expected, descending);
+    }
+
+    private static void assertDequeEquals(List<Integer> expected, UnrolledLinkedListDeque<Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        List<Integer> iterated = new ArrayList<>();
+        actual.forEach(iterated::add);
+        assertEquals(expected, iterated);
+        List<Integer> descending = new ArrayList<>();
+        actual.descendingIterator().forEachRemaining(e -> descending.add(0, e));
+        assertEquals(expected, descending);
+        for (int index = 0; index < expected.size(); index++) {
+            assertEquals(expected.get(index), actual.get(index));
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkStealingExecutorTest {
+
+    @Test
+    public void testSubmitFromOutside() throws ExecutionException, InterruptedException {
+        WorkStealingExecutor executor = new WorkStealingExecutor(2);
+        Future<Integer> future = executor.submit(() -> 42);
+        assertEquals(42, future.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+    }
+
+    @Test
+    public void testForkedTasksAreAllRun() throws InterruptedException {
+        WorkStealingExecutor executor = new WorkStealingExecutor(4, 8);
+        int depth = 14;
+        CountDownLatch leaves = new CountDownLatch(1 << depth);
+        AtomicLong sum = new AtomicLong();
+        executor.execute(new Fork(executor, depth, 0, leaves, sum));
+
+        assertTrue(leaves.await(30, TimeUnit.SECONDS));
+        long n = 1L << depth;
+        assertEquals(n * (n - 1) / 2, sum.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static final class Fork implements Runnable {
+
+        private final WorkStealingExecutor executor;
+        private final int depth;
+        private final long index;
+        private final CountDownLatch leaves;
+        private final AtomicLong sum;
+
+        Fork(WorkStealingExecutor executor, int depth, long index, CountDownLatch leaves, AtomicLong sum) {
+            this.executor = executor;
+            this.depth = depth;
+            this.index = index;
+            this.leaves = leaves;
+            this.sum = sum;
+        }
+
+        @Override
+        public void run() {
+            if (depth == 0) {
+                sum.addAndGet(index);
+                leaves.countDown();
+                return;
+            }
+            executor.execute(new Fork(executor, depth - 1, index * 2, leaves, sum));
+            executor.execute(new Fork(executor, depth - 1, index * 2 + 1, leaves, sum));
+        }
+
+    }
+
+}
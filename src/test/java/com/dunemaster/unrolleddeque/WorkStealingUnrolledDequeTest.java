@@ -0,0 +1,172 @@
+package com.dunemaster.unrolleddeque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkStealingUnrolledDequeTest {
+
+    @Test
+    public void testEmptyDeque() {
+        WorkStealingUnrolledDeque<Integer> deque = new WorkStealingUnrolledDeque<>(4);
+        assertTrue(deque.isEmpty());
+        assertNull(deque.pop());
+        assertNull(deque.steal());
+        assertEquals(0, deque.stealInto(new WorkStealingUnrolledDeque<>(4)));
+        assertThrows(NullPointerException.class, () -> deque.push(null));
+    }
+
+    @Test
+    public void testPopIsLifoAndStealIsFifo() {
+        WorkStealingUnrolledDeque<Integer> deque = new WorkStealingUnrolledDeque<>(4);
+        for (int i = 0; i < 10; i++) {
+            deque.push(i);
+        }
+        assertEquals(10, deque.size());
+        assertEquals(0, deque.steal());
+        assertEquals(1, deque.steal());
+        assertEquals(9, deque.pop());
+        assertEquals(8, deque.pop());
+        for (int i = 2; i < 8; i++) {
+            assertEquals(i, deque.steal());
+        }
+        assertNull(deque.steal());
+        assertNull(deque.pop());
+
+        // the deque keeps working after being emptied from both sides
+        deque.push(100);
+        deque.push(101);
+        assertEquals(101, deque.pop());
+        assertEquals(100, deque.steal());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void testPopAcrossBlocksAfterSteals() {
+        WorkStealingUnrolledDeque<Integer> deque = new WorkStealingUnrolledDeque<>(4);
+        for (int i = 0; i < 13; i++) {
+            deque.push(i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, deque.steal());
+        }
+        for (int i = 12; i >= 5; i--) {
+            assertEquals(i, deque.pop());
+        }
+        assertNull(deque.pop());
+        for (int i = 0; i < 9; i++) {
+            deque.push(i);
+        }
+        for (int i = 8; i >= 0; i--) {
+            assertEquals(i, deque.pop());
+        }
+    }
+
+    @Test
+    public void testStealIntoTakesHalfWithinHeadBlock() {
+        WorkStealingUnrolledDeque<Integer> victim = new WorkStealingUnrolledDeque<>(8);
+        WorkStealingUnrolledDeque<Integer> thief = new WorkStealingUnrolledDeque<>(8);
+        for (int i = 0; i < 6; i++) {
+            victim.push(i);
+        }
+        assertEquals(3, victim.stealInto(thief));
+        assertEquals(3, victim.size());
+        assertEquals(3, thief.size());
+        assertEquals(2, thief.pop());
+        assertEquals(0, thief.steal());
+        assertEquals(3, victim.steal());
+    }
+
+    @Test
+    public void testStealIntoMovesWholeBlocks() {
+        WorkStealingUnrolledDeque<Integer> victim = new WorkStealingUnrolledDeque<>(4);
+        WorkStealingUnrolledDeque<Integer> thief = new WorkStealingUnrolledDeque<>(4);
+        for (int i = 0; i < 20; i++) {
+            victim.push(i);
+        }
+        thief.push(-1);
+        assertEquals(4, victim.stealInto(thief));
+        assertEquals(4, victim.stealInto(thief));
+        assertEquals(12, victim.size());
+        assertEquals(9, thief.size());
+
+        List<Integer> popped = new ArrayList<>();
+        Integer element;
+        while ((element = thief.pop()) != null) {
+            popped.add(element);
+        }
+        assertEquals(asList(7, 6, 5, 4, 3, 2, 1, 0, -1), popped);
+
+        // the stolen blocks are not shared with the victim any more
+        for (int i = 8; i < 20; i++) {
+            assertEquals(i, victim.steal());
+        }
+        for (int i = 0; i < 10; i++) {
+            thief.push(i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, thief.steal());
+        }
+    }
+
+    private static List<Integer> asList(Integer... elements) {
+        return java.util.Arrays.asList(elements);
+    }
+
+    @Test
+    public void testConcurrentOwnerAndThieves() throws InterruptedException {
+        int itemsCount = 200_000;
+        int thievesCount = 3;
+        WorkStealingUnrolledDeque<Integer> deque = new WorkStealingUnrolledDeque<>(16);
+        AtomicIntegerArray seen = new AtomicIntegerArray(itemsCount);
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch thievesDone = new CountDownLatch(thievesCount);
+        for (int t = 0; t < thievesCount; t++) {
+            boolean useBatches = t % 2 == 0;
+            new Thread(() -> {
+                WorkStealingUnrolledDeque<Integer> own = new WorkStealingUnrolledDeque<>(16);
+                while (!done.get() || !deque.isEmpty()) {
+                    if (useBatches) {
+                        deque.stealInto(own);
+                        Integer element;
+                        while ((element = own.pop()) != null) {
+                            seen.incrementAndGet(element);
+                        }
+                    } else {
+                        Integer element = deque.steal();
+                        if (element != null) {
+                            seen.incrementAndGet(element);
+                        }
+                    }
+                }
+                thievesDone.countDown();
+            }).start();
+        }
+
+        for (int i = 0; i < itemsCount; i++) {
+            deque.push(i);
+            if (i % 3 == 0) {
+                Integer element = deque.pop();
+                if (element != null) {
+                    seen.incrementAndGet(element);
+                }
+            }
+        }
+        done.set(true);
+        thievesDone.await();
+
+        for (int i = 0; i < itemsCount; i++) {
+            assertEquals(1, seen.get(i), "element " + i);
+        }
+    }
+
+}